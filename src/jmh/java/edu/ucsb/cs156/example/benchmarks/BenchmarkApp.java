@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Starts the app against an empty in-memory H2 database, for one benchmark trial. */
+public final class BenchmarkApp {
+  private BenchmarkApp() {}
+
+  /**
+   * Starts the app.
+   *
+   * @return the running app; close it when the trial ends
+   */
+  public static ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(ExampleApplication.class)
+        .run(
+            "--spring.profiles.active=development",
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.devtools.restart.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.sql=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--app.jobs.executor.queueCapacity=1000000",
+            "--app.jobs.perUserConcurrency=0");
+  }
+}
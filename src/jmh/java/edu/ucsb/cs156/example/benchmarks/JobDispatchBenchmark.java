@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Cost of launching a job with {@link JobService#runAsJob(JobContextConsumer)}: recording it and
+ * handing it to the job scheduler, not running it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JobDispatchBenchmark {
+  private static final JobContextConsumer NOTHING = ctx -> {};
+
+  private ConfigurableApplicationContext app;
+  private JobService jobService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    app = BenchmarkApp.start();
+    jobService = app.getBean(JobService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    app.close();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Job runAsJob_1_thread() {
+    return jobService.runAsJob(NOTHING);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Job runAsJob_4_threads() {
+    return jobService.runAsJob(NOTHING);
+  }
+}
@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobLogCodec;
+import edu.ucsb.cs156.example.services.jobs.JobLogWriter;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Cost of writing a line with {@link JobContext#log} and of reading a whole log with {@link
+ * JobService#getJobLogs(Long)}, for jobs whose logs already hold {@code logBytes} bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JobLogBenchmark {
+  private static final String LINE = "x".repeat(99);
+
+  @Param({"1024", "102400", "1048576"})
+  public int logBytes;
+
+  private ConfigurableApplicationContext app;
+  private JobService jobService;
+  private long readJobId;
+  private JobContext writeContext;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    app = BenchmarkApp.start();
+    jobService = app.getBean(JobService.class);
+    readJobId = jobWithLog().getId();
+    writeContext = new JobContext(app.getBean(JobLogWriter.class), jobWithLog(), lines());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    app.close();
+  }
+
+  private int lines() {
+    return Math.max(1, logBytes / (LINE.length() + 1));
+  }
+
+  private Job jobWithLog() {
+    JobLogCodec codec = app.getBean(JobLogCodec.class);
+    Job job = app.getBean(JobsRepository.class).save(Job.builder().status("complete").build());
+    List<JobLogChunk> chunks = new ArrayList<>();
+    for (int seq = 0; seq < lines(); seq++) {
+      chunks.add(codec.encode(job.getId(), seq, LINE));
+    }
+    app.getBean(JobLogChunksRepository.class).saveAll(chunks);
+    return job;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void log_1_thread() {
+    writeContext.log(LINE);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void log_4_threads() {
+    writeContext.log(LINE);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String getJobLogs_1_thread() {
+    return jobService.getJobLogs(readJobId);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getJobLogs_4_threads() {
+    return jobService.getJobLogs(readJobId);
+  }
+}
@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.ucsb.cs156.example.services.jobs.JobConnections;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Gives jobs their own connection pool, so that a job running many queries cannot use up the
+ * connections that web requests are waiting for.
+ *
+ * <p>Both pools connect to the database configured by {@code spring.datasource.*}. The web pool is
+ * sized by {@code spring.datasource.hikari.*} and the job pool by {@code
+ * app.jobs.datasource.hikari.*}. The primary {@code DataSource}, which JPA and Liquibase use, hands
+ * out connections from the job pool on threads marked by {@link JobConnections} and from the web
+ * pool everywhere else.
+ *
+ * <p>The pools are named "web" and "jobs", which is the {@code pool} tag on their {@code
+ * hikaricp.connections.*} metrics; {@code hikaricp.connections.acquire} and {@code
+ * hikaricp.connections.pending} show how long, and how many, callers wait for a connection.
+ */
+@Configuration
+public class JobDataSourceConfig {
+
+  /**
+   * The pool used by web requests and by everything else that is not a job.
+   *
+   * @param properties the {@code spring.datasource.*} connection settings
+   * @return the web pool
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource webDataSource(DataSourceProperties properties) {
+    return pool(properties, "web");
+  }
+
+  /**
+   * The pool used by threads that are running jobs.
+   *
+   * @param properties the {@code spring.datasource.*} connection settings
+   * @return the job pool
+   */
+  @Bean
+  @ConfigurationProperties("app.jobs.datasource.hikari")
+  public HikariDataSource jobDataSource(DataSourceProperties properties) {
+    return pool(properties, "jobs");
+  }
+
+  /**
+   * The {@code DataSource} everything else uses, which picks a pool for each connection.
+   *
+   * @param webDataSource the web pool
+   * @param jobDataSource the job pool
+   * @return the routing data source
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("webDataSource") DataSource webDataSource,
+      @Qualifier("jobDataSource") DataSource jobDataSource) {
+    AbstractRoutingDataSource routing =
+        new AbstractRoutingDataSource() {
+          @Override
+          protected Object determineCurrentLookupKey() {
+            return JobConnections.inJob() ? "jobs" : "web";
+          }
+        };
+    routing.setTargetDataSources(Map.of("web", webDataSource, "jobs", jobDataSource));
+    routing.setDefaultTargetDataSource(webDataSource);
+    return routing;
+  }
+
+  private HikariDataSource pool(DataSourceProperties properties, String name) {
+    HikariDataSource pool =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName(name);
+    return pool;
+  }
+}
@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.jobs.VirtualThreadJobExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configures the executor that {@code JobService} runs jobs on, so that jobs do not share Spring's
+ * default task executor.
+ *
+ * <p>With {@code app.jobs.executor.mode=platform} (the default), jobs run on a fixed pool of {@code
+ * app.jobs.executor.concurrency} platform threads with a queue of at most {@code
+ * app.jobs.executor.queueCapacity} waiting jobs. With {@code app.jobs.executor.mode=virtual}, each
+ * job runs on a virtual thread, with the same limits enforced by semaphores. In both modes a job
+ * submitted while the queue is full is rejected with a {@code TaskRejectedException}.
+ */
+@Configuration
+@Slf4j
+public class JobExecutorConfig {
+
+  @Value("${app.jobs.executor.mode:platform}")
+  private String mode;
+
+  @Value("${app.jobs.executor.concurrency:4}")
+  private int concurrency;
+
+  @Value("${app.jobs.executor.queueCapacity:100}")
+  private int queueCapacity;
+
+  /**
+   * The executor used by {@code @Async("jobExecutor")}.
+   *
+   * @return the job executor
+   */
+  @Bean(name = "jobExecutor")
+  public AsyncTaskExecutor jobExecutor() {
+    log.info(
+        "job executor: mode={} concurrency={} queueCapacity={}", mode, concurrency, queueCapacity);
+    if (mode.equals("virtual")) {
+      return new VirtualThreadJobExecutor(concurrency, queueCapacity);
+    }
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("job-");
+    return executor;
+  }
+}
@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Turns on JPA auditing so that {@code @CreatedDate} and {@code @LastModifiedDate} fields (e.g. on
+ * {@code Job}) are filled in; job retention relies on {@code Job.createdAt}.
+ *
+ * <p>This lives in its own configuration class, rather than on {@code ExampleApplication}, so that
+ * {@code @WebMvcTest} slices without JPA still start.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class JpaAuditingConfig {
+
+  /**
+   * Spring Data's default provider returns a {@code LocalDateTime}, which cannot be stored in a
+   * {@code ZonedDateTime} field.
+   *
+   * @return the provider used for auditing timestamps
+   */
+  @Bean
+  public DateTimeProvider auditingDateTimeProvider() {
+    return () -> Optional.of(ZonedDateTime.now());
+  }
+}
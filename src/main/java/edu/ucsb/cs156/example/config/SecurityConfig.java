@@ -4,14 +4,14 @@ import static org.springframework.security.web.util.matcher.AntPathRequestMatche
 
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.LoginUserService;
+import edu.ucsb.cs156.example.services.UserCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -19,6 +19,7 @@ import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -44,18 +45,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 /**
  * The `SecurityConfig` class in Java configures web security with OAuth2 login, CSRF protection,
  * and role-based authorization based on user email addresses.
+ *
+ * <p>It is skipped when the app is not serving web requests (the "worker" profile).
  */
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity
 @Slf4j
 public class SecurityConfig {
 
   @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<>();
+  private final Set<String> adminEmails = new HashSet<>();
 
   @Autowired UserRepository userRepository;
 
+  @Autowired UserCache userCache;
+
+  @Autowired LoginUserService loginUserService;
+
   /**
    * The `filterChain` method in this Java code configures various security settings for an HTTP
    * request, including authorization, exception handling, OAuth2 login, CSRF protection, and logout
@@ -71,13 +79,21 @@ public class SecurityConfig {
         .oauth2Login(
             oauth2 ->
                 oauth2.userInfoEndpoint(
-                    userInfo -> userInfo.userAuthoritiesMapper(this.userAuthoritiesMapper())))
+                    userInfo ->
+                        userInfo
+                            .userService(loginUserService)
+                            .userAuthoritiesMapper(this.userAuthoritiesMapper())))
         .csrf(
             csrf ->
                 csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
                     .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+        .authorizeHttpRequests(
+            auth ->
+                auth.requestMatchers(antMatcher("/actuator/**"))
+                    .hasRole("ADMIN")
+                    .anyRequest()
+                    .permitAll())
         .logout(
             logout ->
                 logout
@@ -126,8 +142,10 @@ public class SecurityConfig {
   }
 
   /**
-   * This method checks if the given email belongs to an admin user either from a predefined list or
-   * by querying the user repository.
+   * This method checks if the given email belongs to an admin user either from a predefined set or
+   * from the user's row in the users table. The row is looked up in the {@link UserCache} first,
+   * which already holds it when this is called during login, and only queried (and then cached)
+   * when it is not there.
    *
    * @param email email address of the user
    * @return whether the user with the given email is an admin
@@ -136,7 +154,11 @@ public class SecurityConfig {
     if (adminEmails.contains(email)) {
       return true;
     }
-    Optional<User> u = userRepository.findByEmail(email);
+    Optional<User> u = userCache.get(email);
+    if (u.isEmpty()) {
+      u = userRepository.findByEmail(email);
+      u.ifPresent(userCache::put);
+    }
     return u.isPresent() && u.get().getAdmin();
   }
 }
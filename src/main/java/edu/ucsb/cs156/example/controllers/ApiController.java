@@ -6,6 +6,7 @@ import edu.ucsb.cs156.example.services.CurrentUserService;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -47,4 +48,18 @@ public abstract class ApiController {
         "type", e.getClass().getSimpleName(),
         "message", e.getMessage());
   }
+
+  /**
+   * This method handles the TaskRejectedException thrown when the job executor is at capacity.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({TaskRejectedException.class})
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  public Object handleTaskRejectedException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
+  }
 }
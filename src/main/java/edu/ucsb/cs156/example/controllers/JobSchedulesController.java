@@ -0,0 +1,156 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import edu.ucsb.cs156.example.services.jobs.JobSchedules;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/** This is a REST controller for recurring job schedules */
+@Tag(name = "Job Schedules")
+@RequestMapping("/api/jobs/schedules")
+@RestController
+@Slf4j
+public class JobSchedulesController extends ApiController {
+
+  @Autowired JobSchedulesRepository jobSchedulesRepository;
+
+  @Autowired JobSchedules jobSchedules;
+
+  /**
+   * List all job schedules
+   *
+   * @return an iterable of JobSchedule
+   */
+  @Operation(summary = "List all job schedules")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/all")
+  public Iterable<JobSchedule> allJobSchedules() {
+    return jobSchedulesRepository.findAll();
+  }
+
+  /**
+   * Get a single job schedule by id
+   *
+   * @param id the id of the schedule
+   * @return a JobSchedule
+   */
+  @Operation(summary = "Get a single job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public JobSchedule getById(@Parameter(name = "id") @RequestParam Long id) {
+    return jobSchedulesRepository
+        .findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(JobSchedule.class, id));
+  }
+
+  /**
+   * Create a new job schedule
+   *
+   * @param name the name of the schedule
+   * @param cron when to run, as a Spring cron expression
+   * @param enabled whether the schedule should run
+   * @param descriptor the job to run, as a job descriptor
+   * @return the saved schedule
+   */
+  @Operation(summary = "Create a new job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/post")
+  public JobSchedule postJobSchedule(
+      @Parameter(name = "name") @RequestParam String name,
+      @Parameter(
+              name = "cron",
+              description =
+                  "second minute hour day-of-month month day-of-week, e.g. 0 0 2 * * * for 2am"
+                      + " every day")
+          @RequestParam
+          String cron,
+      @Parameter(name = "enabled") @RequestParam(defaultValue = "true") boolean enabled,
+      @Parameter(
+              description =
+                  "the job to run, e.g. {\"type\":\"edu.ucsb.cs156.example.jobs.TestJob\","
+                      + "\"params\":{\"fail\":false,\"sleepMs\":1000}}")
+          @RequestBody
+          String descriptor) {
+
+    JobSchedule schedule =
+        JobSchedule.builder().name(name).cron(cron).enabled(enabled).descriptor(descriptor).build();
+    return jobSchedules.save(schedule);
+  }
+
+  /**
+   * Delete a job schedule
+   *
+   * @param id the id of the schedule to delete
+   * @return a message indicating the schedule was deleted
+   */
+  @Operation(summary = "Delete a job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object deleteJobSchedule(@Parameter(name = "id") @RequestParam Long id) {
+    JobSchedule schedule =
+        jobSchedulesRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(JobSchedule.class, id));
+
+    jobSchedulesRepository.delete(schedule);
+    return genericMessage("JobSchedule with id %s deleted".formatted(id));
+  }
+
+  /**
+   * Update a single job schedule
+   *
+   * @param id id of the schedule to update
+   * @param incoming the new schedule
+   * @return the updated schedule
+   */
+  @Operation(summary = "Update a single job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PutMapping("")
+  public JobSchedule updateJobSchedule(
+      @Parameter(name = "id") @RequestParam Long id, @RequestBody JobSchedule incoming) {
+
+    JobSchedule schedule =
+        jobSchedulesRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(JobSchedule.class, id));
+
+    schedule.setName(incoming.getName());
+    schedule.setCron(incoming.getCron());
+    schedule.setDescriptor(incoming.getDescriptor());
+    schedule.setEnabled(incoming.getEnabled());
+
+    return jobSchedules.save(schedule);
+  }
+
+  /**
+   * This method handles an invalid cron expression or job descriptor.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({IllegalArgumentException.class})
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleIllegalArgumentException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
+  }
+}
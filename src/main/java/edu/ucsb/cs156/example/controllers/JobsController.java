@@ -5,22 +5,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobLogTail;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.models.JobTypeMetrics;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobLogBackfill;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
+import edu.ucsb.cs156.example.services.jobs.JobPriority;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Tag(name = "Jobs")
 @RequestMapping("/api/jobs")
@@ -31,21 +43,45 @@ public class JobsController extends ApiController {
 
   @Autowired private JobService jobService;
 
+  @Autowired private JobMetrics jobMetrics;
+
+  @Autowired private JobLogBackfill jobLogBackfill;
+
   @Autowired ObjectMapper mapper;
 
-  @Operation(summary = "List all jobs")
+  /** Largest page of job summaries {@link #allJobs} will return. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  @Operation(
+      summary =
+          "List jobs, newest first, without their logs (pass the last id as beforeId for the next"
+              + " page)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/all")
-  public Iterable<Job> allJobs() {
-    Iterable<Job> jobs = jobsRepository.findAll();
-    return jobs;
+  public List<JobSummary> allJobs(
+      @Parameter(name = "beforeId", description = "only list jobs with a smaller id")
+          @RequestParam(required = false)
+          Long beforeId,
+      @Parameter(name = "size", description = "maximum number of jobs to list")
+          @RequestParam(defaultValue = "100")
+          int size) {
+    return jobsRepository.findSummariesBefore(
+        beforeId == null ? Long.MAX_VALUE : beforeId,
+        PageRequest.of(0, Math.clamp(size, 1, MAX_PAGE_SIZE)));
+  }
+
+  @Operation(summary = "Get job counts and wait/run times by job type")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/metrics")
+  public List<JobTypeMetrics> jobMetrics() {
+    return jobMetrics.snapshot();
   }
 
   @Operation(summary = "Delete all job records")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("/all")
   public Map<String, String> deleteAllJobs() {
-    jobsRepository.deleteAll();
+    jobsRepository.deleteAllInBulk();
     return Map.of("message", "All jobs deleted");
   }
 
@@ -58,6 +94,7 @@ public class JobsController extends ApiController {
 
     Job job =
         jobsRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(Job.class, id));
+    job.setLog(jobService.getJobLogs(job));
 
     return job;
   }
@@ -73,15 +110,48 @@ public class JobsController extends ApiController {
     return Map.of("message", String.format("Job with id %d deleted", id));
   }
 
+  @Operation(summary = "Cancel a queued or running job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/cancel")
+  public Map<String, String> cancelJob(@Parameter(name = "id") @RequestParam Long id) {
+    return Map.of("message", jobService.cancelJob(id));
+  }
+
   @Operation(summary = "Launch Test Job (click fail if you want to test exception handling)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PostMapping("/launch/testjob")
   public Job launchTestJob(
       @Parameter(name = "fail") @RequestParam Boolean fail,
-      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs) {
+      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs,
+      @Parameter(name = "timeoutMs", description = "0 for the default timeout")
+          @RequestParam(defaultValue = "0")
+          long timeoutMs,
+      @Parameter(name = "priority") @RequestParam(defaultValue = "NORMAL") JobPriority priority,
+      @Parameter(
+              name = "idempotencyKey",
+              description = "repeating a launch with the same key returns the first job")
+          @RequestParam(required = false)
+          String idempotencyKey,
+      @Parameter(name = "Idempotency-Key", description = "same as idempotencyKey")
+          @RequestHeader(name = "Idempotency-Key", required = false)
+          String idempotencyKeyHeader) {
 
-    TestJob testJob = TestJob.builder().fail(fail).sleepMs(sleepMs).build();
-    return jobService.runAsJob(testJob);
+    TestJob testJob =
+        TestJob.builder()
+            .fail(fail)
+            .sleepMs(sleepMs)
+            .timeoutMs(timeoutMs)
+            .priority(priority)
+            .build();
+    return jobService.runAsJob(
+        testJob, idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey);
+  }
+
+  @Operation(summary = "Launch a job that compresses job logs written before log compression")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/compresslogs")
+  public Job launchCompressLogsJob() {
+    return jobService.runAsJob(jobLogBackfill::run);
   }
 
   @Operation(summary = "Get long job logs")
@@ -91,4 +161,37 @@ public class JobsController extends ApiController {
 
     return jobService.getJobLogs(id);
   }
+
+  @Operation(summary = "Get how far a job has got")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/{id}/progress")
+  public JobProgress getJobProgress(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+
+    return jobService.getProgress(id);
+  }
+
+  @Operation(summary = "Get the part of a job log written after a given sequence number")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/logs/{id}/tail")
+  public JobLogTail tailJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "after", description = "lastSeq from the previous call; -1 for all")
+          @RequestParam(defaultValue = "-1")
+          long after) {
+
+    return jobService.tailJobLogs(id, after);
+  }
+
+  @Operation(summary = "Stream a job log as server-sent events")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "/logs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "after", description = "last event id already seen; -1 for all")
+          @RequestParam(defaultValue = "-1")
+          long after) {
+
+    return jobService.streamJobLogs(id, after);
+  }
 }
@@ -29,6 +29,41 @@ public class Job {
 
   private String status;
 
+  /** The kind of job, e.g. {@code TestJob}; see {@code JobDescriptors.typeOf}. */
+  private String jobType;
+
+  /** Progress last saved for the job; see {@code JobContext.progress}. */
+  private Long progressDone;
+
+  private Long progressTotal;
+
+  /** When the job was last seen running; see {@code JobHeartbeats}. */
+  @JsonIgnore private ZonedDateTime heartbeatAt;
+
+  /**
+   * Set each time a job is claimed from the durable queue, so that an instance can tell whether a
+   * job it is running has since been recovered and claimed again; see {@code JobQueue}.
+   */
+  @JsonIgnore private String claimToken;
+
+  /** State saved by the job to resume from if it is run again; see {@code JobContext}. */
+  @JsonIgnore
+  @Column(columnDefinition = "TEXT")
+  private String checkpoint;
+
+  /** JSON description of a queued job, used to run it on whichever instance claims it. */
+  @JsonIgnore
+  @Column(columnDefinition = "TEXT")
+  private String descriptor;
+
+  /**
+   * Number of characters written to the job's log, kept up to date by {@code JobLogWriter}. Never
+   * written by saving the entity, so that a stale copy cannot undo lines logged since it was read.
+   */
+  @JsonIgnore
+  @Column(insertable = false, updatable = false)
+  private Long logLength;
+
   // 1048576 is 2^20, which is the max size of a mediumtext in MySQL
   @Column(
       columnDefinition = "TEXT",
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents one appended piece of a job's log.
+ *
+ * <p>Logs are stored as an append-only sequence of chunks so that writing a line never requires
+ * rewriting the lines that came before it. The full log is the chunks for a job in {@code seq}
+ * order, joined by newlines. A chunk may hold several lines; its {@code seq} is the sequence number
+ * of the last line it holds.
+ *
+ * <p>The text is stored in {@code data}, usually compressed; see {@link
+ * edu.ucsb.cs156.example.services.jobs.JobLogCodec}. Chunks written before that have their text in
+ * {@code payload} instead, until the log backfill job has compressed them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_log_chunks")
+public class JobLogChunk {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private long jobId;
+  private long seq;
+
+  @Column(columnDefinition = "TEXT", length = 1048576)
+  private String payload;
+
+  private byte[] data;
+
+  /** Length of the chunk's text, so it can be summed without reading {@code data}. */
+  private Integer textLength;
+}
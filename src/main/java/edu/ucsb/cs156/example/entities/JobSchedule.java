@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a job that is run on a recurring schedule.
+ *
+ * <p>{@code cron} is a Spring cron expression with six fields, e.g. {@code 0 0 2 * * *} for 2am
+ * every day. {@code descriptor} says which job to run, in the format written by {@code
+ * JobDescriptors}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_schedules")
+public class JobSchedule {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private String name;
+  private String cron;
+
+  @Column(columnDefinition = "TEXT")
+  private String descriptor;
+
+  private boolean enabled;
+
+  /** When the job will next run, or null while the schedule is disabled. */
+  private ZonedDateTime nextRunAt;
+
+  private ZonedDateTime lastRunAt;
+  private Long lastJobId;
+}
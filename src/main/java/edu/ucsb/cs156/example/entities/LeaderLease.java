@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a lease on some work that only one instance of the app may
+ * do at a time. The instance named by {@code owner} holds the lease until {@code expiresAt}, unless
+ * it renews it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "leader_leases")
+public class LeaderLease {
+  @Id private String name;
+
+  private String owner;
+  private ZonedDateTime expiresAt;
+}
@@ -2,15 +2,32 @@ package edu.ucsb.cs156.example.jobs;
 
 import edu.ucsb.cs156.example.services.jobs.JobContext;
 import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobPriority;
 import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 @Builder
+@Jacksonized
+@Getter
 public class TestJob implements JobContextConsumer {
 
   private boolean fail;
   private int sleepMs;
+  private long timeoutMs;
+  @Builder.Default private JobPriority priority = JobPriority.NORMAL;
+
+  @Override
+  public long timeoutMs() {
+    return timeoutMs;
+  }
+
+  @Override
+  public JobPriority priority() {
+    return priority;
+  }
 
   @Override
   public void accept(JobContext ctx) throws Exception {
@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.User;
+import lombok.Getter;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+/**
+ * The principal of a user who logged in with OAuth2. Besides the attributes from the OAuth2
+ * provider, it carries the user's id, email and admin flag as they were in the users table when the
+ * user logged in, so that the current user can be known without a database lookup.
+ */
+@Getter
+public class AuthenticatedUser extends DefaultOAuth2User {
+  private static final long serialVersionUID = 1L;
+
+  private final long userId;
+  private final String email;
+  private final boolean admin;
+
+  /**
+   * Creates the principal for a user who has just logged in.
+   *
+   * @param oauth2User the user as loaded from the OAuth2 provider
+   * @param nameAttributeKey the attribute that holds the user's name, e.g. "sub"
+   * @param user the user's row in the users table
+   */
+  public AuthenticatedUser(OAuth2User oauth2User, String nameAttributeKey, User user) {
+    super(oauth2User.getAuthorities(), oauth2User.getAttributes(), nameAttributeKey);
+    this.userId = user.getId();
+    this.email = user.getEmail();
+    this.admin = user.getAdmin();
+  }
+
+  /**
+   * The user, built from this principal rather than read from the database.
+   *
+   * @return the user
+   */
+  public User toUser() {
+    return User.builder()
+        .id(userId)
+        .email(email)
+        .admin(admin)
+        .googleSub(getAttribute("sub"))
+        .pictureUrl(getAttribute("picture"))
+        .fullName(getAttribute("name"))
+        .givenName(getAttribute("given_name"))
+        .familyName(getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(getAttribute("email_verified")))
+        .locale(getAttribute("locale"))
+        .hostedDomain(getAttribute("hd"))
+        .build();
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the part of a job's log written after a given point.
+ *
+ * <p>Clients poll with {@code after} set to the {@code lastSeq} of the previous response and append
+ * {@code content} (on a new line) to what they already have.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobLogTail {
+  private long jobId;
+  private String status;
+  private String content; // new log text, or "" if nothing was written since the last poll
+  private long lastSeq; // pass this back as "after" on the next poll
+}
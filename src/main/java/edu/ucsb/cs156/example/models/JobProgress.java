@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents how far a job has got, as last reported by the job through
+ * {@code JobContext.progress}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobProgress {
+  private long jobId;
+  private String status;
+  private Long done; // null if the job has not reported any progress
+  private Long total;
+}
@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one row of the job listing: everything about a job except
+ * its log, which can be fetched separately.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobSummary {
+  private long id;
+  private String status;
+  private String jobType;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  private Long createdById; // null if the job was not started by a user
+  private String createdByEmail;
+  private long logLength; // characters in the log, including log chunks
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the job metrics of one job type on this instance, as
+ * returned by {@code /api/jobs/metrics}. Times are in milliseconds.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobTypeMetrics {
+  private String jobType;
+  private long submitted;
+  private long queued; // waiting in the durable queue (all instances)
+  private long pending; // handed to this instance's executor but not started yet
+  private long active;
+  private long completed;
+  private long failed;
+  private double waitMeanMs;
+  private double waitMaxMs;
+  private double runMeanMs;
+  private double runMaxMs;
+}
@@ -1,9 +1,21 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 /** The HelpRequestRepository is a repository for HelpRequest entities. */
 @Repository
-public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {}
+public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {
+  /**
+   * Reads the next chunk of HelpRequest rows in id order, for jobs that work through the whole
+   * table (see {@code ChunkedStep}).
+   *
+   * @param id only rows with a greater id are returned
+   * @param pageable how many rows to return, e.g. {@code PageRequest.of(0, 100)}
+   * @return the rows
+   */
+  List<HelpRequest> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+}
@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** The JobLogChunksRepository is a repository for JobLogChunk entities. */
+@Repository
+public interface JobLogChunksRepository extends CrudRepository<JobLogChunk, Long> {
+  /**
+   * This method returns the log chunks for a job in the order they were written.
+   *
+   * @param jobId id of the job
+   * @return the chunks for the job, ordered by sequence number
+   */
+  List<JobLogChunk> findByJobIdOrderBySeqAsc(long jobId);
+
+  /**
+   * This method returns the first log chunk written for a job.
+   *
+   * @param jobId id of the job
+   * @return the chunk with the lowest sequence number, or null if there is none
+   */
+  JobLogChunk findFirstByJobIdOrderBySeqAsc(long jobId);
+
+  /**
+   * This method returns the log chunks for a job written after a given sequence number.
+   *
+   * @param jobId id of the job
+   * @param seq only chunks with a greater sequence number are returned
+   * @return the chunks, ordered by sequence number
+   */
+  List<JobLogChunk> findByJobIdAndSeqGreaterThanOrderBySeqAsc(long jobId, long seq);
+
+  /**
+   * This method returns chunks written before log compression, whose text is still in {@code
+   * payload}, oldest first.
+   *
+   * @param pageable how many chunks to return
+   * @return the chunks
+   */
+  List<JobLogChunk> findByDataIsNullOrderByIdAsc(Pageable pageable);
+
+  /**
+   * This method returns the highest sequence number written to a job's log.
+   *
+   * @param jobId id of the job
+   * @return the sequence number, or null if nothing has been written
+   */
+  @Query("SELECT MAX(c.seq) FROM job_log_chunks c WHERE c.jobId = :jobId")
+  Long findMaxSeq(@Param("jobId") long jobId);
+}
@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobSchedulesRepository is a repository for JobSchedule entities. */
+@Repository
+public interface JobSchedulesRepository extends CrudRepository<JobSchedule, Long> {
+  /**
+   * This method returns the enabled schedules whose next run is due.
+   *
+   * @param now the current time
+   * @return the due schedules
+   */
+  List<JobSchedule> findByEnabledTrueAndNextRunAtLessThanEqual(ZonedDateTime now);
+
+  /**
+   * This method moves a schedule on to its next run if, and only if, its next run is still the
+   * given one, so that each run is claimed by exactly one caller.
+   *
+   * @param id id of the schedule
+   * @param due the run being claimed, as read from the schedule
+   * @param next when the schedule should run after that
+   * @param now the current time
+   * @return 1 if the run was claimed, 0 if someone else claimed it or the schedule changed
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE job_schedules s SET s.nextRunAt = :next, s.lastRunAt = :now"
+          + " WHERE s.id = :id AND s.enabled = true AND s.nextRunAt = :due")
+  int claimRun(
+      @Param("id") long id,
+      @Param("due") ZonedDateTime due,
+      @Param("next") ZonedDateTime next,
+      @Param("now") ZonedDateTime now);
+
+  /**
+   * This method records the job started by a schedule's latest run.
+   *
+   * @param id id of the schedule
+   * @param jobId id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE job_schedules s SET s.lastJobId = :jobId WHERE s.id = :id")
+  void setLastJobId(@Param("id") long id, @Param("jobId") long jobId);
+}
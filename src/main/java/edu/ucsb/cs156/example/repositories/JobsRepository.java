@@ -1,8 +1,277 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.models.JobSummary;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface JobsRepository extends CrudRepository<Job, Long> {}
+public interface JobsRepository extends CrudRepository<Job, Long> {
+  /**
+   * This method returns summaries of the newest jobs with an id below {@code beforeId}, newest
+   * first. The log itself is never loaded; its length is the one recorded on the job.
+   *
+   * @param beforeId only jobs with a smaller id are returned; pass the last id of the previous page
+   * @param pageable how many summaries to return
+   * @return the summaries
+   */
+  @Query(
+      "SELECT new edu.ucsb.cs156.example.models.JobSummary(j.id, j.status, j.jobType,"
+          + " j.createdAt, j.updatedAt, u.id, u.email,"
+          + " COALESCE(j.logLength, 0))"
+          + " FROM jobs j LEFT JOIN j.createdBy u"
+          + " WHERE j.id < :beforeId ORDER BY j.id DESC")
+  List<JobSummary> findSummariesBefore(@Param("beforeId") long beforeId, Pageable pageable);
+
+  /**
+   * This method locks and returns the oldest queued jobs, skipping rows that another transaction
+   * has already locked. Postgres only; must be called inside a transaction.
+   *
+   * @param limit maximum number of jobs to return
+   * @return the locked jobs
+   */
+  @Query(
+      value =
+          "SELECT * FROM jobs WHERE status = 'queued' ORDER BY id LIMIT :limit"
+              + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<Job> findQueuedForUpdateSkipLocked(@Param("limit") int limit);
+
+  /**
+   * This method returns the ids of the oldest queued jobs.
+   *
+   * @param pageable how many ids to return
+   * @return the ids, oldest first
+   */
+  @Query("SELECT j.id FROM jobs j WHERE j.status = 'queued' ORDER BY j.id")
+  List<Long> findQueuedIds(Pageable pageable);
+
+  /**
+   * This method marks a job as running if, and only if, it is still queued.
+   *
+   * @param id id of the job
+   * @param now the current time, recorded as the job's first heartbeat
+   * @param claimToken new token identifying this claim
+   * @return 1 if this call claimed the job, 0 if it was no longer queued
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.status = 'running', j.heartbeatAt = :now, j.claimToken = :claimToken"
+          + " WHERE j.id = :id AND j.status = 'queued'")
+  int claimQueued(
+      @Param("id") long id,
+      @Param("now") ZonedDateTime now,
+      @Param("claimToken") String claimToken);
+
+  /**
+   * This method saves the final status and progress of a job if, and only if, it is still running
+   * under the same claim, so that an instance that lost a job (e.g. it stopped heartbeating long
+   * enough for the job to be recovered) cannot overwrite what has happened to it since.
+   *
+   * @param job the job, with its final status and progress
+   * @param now the current time
+   * @return 1 if the job was saved, 0 if it is no longer this run's
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.status = :#{#job.status}, j.progressDone = :#{#job.progressDone},"
+          + " j.progressTotal = :#{#job.progressTotal}, j.updatedAt = :now"
+          + " WHERE j.id = :#{#job.id} AND j.status = 'running'"
+          + " AND COALESCE(j.claimToken, '') = COALESCE(:#{#job.claimToken}, '')")
+  int finishRunning(@Param("job") Job job, @Param("now") ZonedDateTime now);
+
+  /**
+   * This method adds to the recorded length of a job's log after chunks have been written.
+   *
+   * @param id id of the job
+   * @param length number of characters written
+   * @return 1 if the job exists, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.logLength = COALESCE(j.logLength, 0) + :length WHERE j.id = :id")
+  int addLogLength(@Param("id") long id, @Param("length") long length);
+
+  /**
+   * This method returns jobs that still have text in the log column they were written to before
+   * chunked logs, oldest first.
+   *
+   * @param pageable how many jobs to return
+   * @return the jobs
+   */
+  List<Job> findByLogIsNotNullOrderByIdAsc(Pageable pageable);
+
+  /**
+   * This method empties the log column of a job whose log has been moved into chunks.
+   *
+   * @param id id of the job
+   * @return 1 if the job exists, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.log = NULL WHERE j.id = :id")
+  int clearLog(@Param("id") long id);
+
+  /**
+   * This method saves a job's progress without touching the rest of its row, if, and only if, the
+   * job is still running, so that a late periodic save can never overwrite the final progress saved
+   * when the job finished.
+   *
+   * @param id id of the job
+   * @param done how many items the job has finished
+   * @param total how many items there are in all
+   * @return 1 if the job is running, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.progressDone = :done, j.progressTotal = :total"
+          + " WHERE j.id = :id AND j.status = 'running'")
+  int updateProgress(@Param("id") long id, @Param("done") long done, @Param("total") long total);
+
+  /**
+   * This method records that the jobs held by this instance are still alive.
+   *
+   * @param ids ids of the jobs
+   * @param now the current time
+   * @return the number of jobs updated
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.heartbeatAt = :now WHERE j.id IN :ids")
+  int heartbeat(@Param("ids") List<Long> ids, @Param("now") ZonedDateTime now);
+
+  /**
+   * This method saves a job's checkpoint without touching the rest of its row.
+   *
+   * @param id id of the job
+   * @param checkpoint the state to save
+   * @return 1 if the job exists, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.checkpoint = :checkpoint WHERE j.id = :id")
+  int saveCheckpoint(@Param("id") long id, @Param("checkpoint") String checkpoint);
+
+  /**
+   * This method returns the running jobs whose last heartbeat is older than a cutoff. A job that
+   * has not had a heartbeat yet is judged by its last update, or failing that its creation.
+   *
+   * @param cutoff heartbeats before this are stale
+   * @return the jobs, oldest first
+   */
+  @Query(
+      "SELECT j FROM jobs j WHERE j.status = 'running'"
+          + " AND COALESCE(j.heartbeatAt, j.updatedAt, j.createdAt) < :cutoff ORDER BY j.id")
+  List<Job> findOrphans(@Param("cutoff") ZonedDateTime cutoff);
+
+  /**
+   * This method moves an orphaned job to a new status if, and only if, it is still running with a
+   * stale heartbeat, so that each orphan is recovered by exactly one caller.
+   *
+   * @param id id of the job
+   * @param cutoff heartbeats before this are stale
+   * @param status the new status, "queued" or "error"
+   * @return 1 if this call recovered the job, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.status = :status WHERE j.id = :id AND j.status = 'running'"
+          + " AND COALESCE(j.heartbeatAt, j.updatedAt, j.createdAt) < :cutoff")
+  int recoverOrphan(
+      @Param("id") long id, @Param("cutoff") ZonedDateTime cutoff, @Param("status") String status);
+
+  /**
+   * This method marks a job as cancelled if, and only if, it is still queued.
+   *
+   * @param id id of the job
+   * @return 1 if the job was cancelled, 0 if it was no longer queued
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.status = 'cancelled' WHERE j.id = :id AND j.status = 'queued'")
+  int cancelQueued(@Param("id") long id);
+
+  /**
+   * This method counts the jobs waiting in the durable queue, by job type.
+   *
+   * @return rows of [job type, count]
+   */
+  @Query("SELECT j.jobType, COUNT(j) FROM jobs j WHERE j.status = 'queued' GROUP BY j.jobType")
+  List<Object[]> countQueuedByJobType();
+
+  /**
+   * This method returns every status that at least one job has.
+   *
+   * @return the statuses
+   */
+  @Query("SELECT DISTINCT j.status FROM jobs j")
+  List<String> findDistinctStatuses();
+
+  /**
+   * This method returns the ids of jobs with the given status, newest first.
+   *
+   * @param status the status
+   * @param pageable which ids to return
+   * @return the ids
+   */
+  @Query("SELECT j.id FROM jobs j WHERE j.status = :status ORDER BY j.id DESC")
+  List<Long> findIdsByStatusNewestFirst(@Param("status") String status, Pageable pageable);
+
+  /**
+   * This method returns the ids of the oldest jobs with the given status and an id of at most
+   * {@code maxId}.
+   *
+   * @param status the status
+   * @param maxId largest id to return
+   * @param pageable how many ids to return
+   * @return the ids, oldest first
+   */
+  @Query("SELECT j.id FROM jobs j WHERE j.status = :status AND j.id <= :maxId ORDER BY j.id")
+  List<Long> findIdsByStatusUpTo(
+      @Param("status") String status, @Param("maxId") long maxId, Pageable pageable);
+
+  /**
+   * This method returns the ids of the oldest jobs with the given status created before a cutoff.
+   *
+   * @param status the status
+   * @param cutoff only jobs created before this are returned
+   * @param pageable how many ids to return
+   * @return the ids, oldest first
+   */
+  @Query("SELECT j.id FROM jobs j WHERE j.status = :status AND j.createdAt < :cutoff ORDER BY j.id")
+  List<Long> findIdsByStatusCreatedBefore(
+      @Param("status") String status, @Param("cutoff") ZonedDateTime cutoff, Pageable pageable);
+
+  /**
+   * This method deletes the given jobs with a single statement; their log chunks are deleted by the
+   * database (ON DELETE CASCADE).
+   *
+   * @param ids ids of the jobs to delete
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM jobs j WHERE j.id IN :ids")
+  int deleteByIdIn(@Param("ids") List<Long> ids);
+
+  /**
+   * This method deletes every job with a single statement, without loading them first.
+   *
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM jobs j")
+  int deleteAllInBulk();
+}
@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.LeaderLease;
+import java.time.ZonedDateTime;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The LeaderLeasesRepository is a repository for LeaderLease entities. */
+@Repository
+public interface LeaderLeasesRepository extends CrudRepository<LeaderLease, String> {
+  /**
+   * This method takes or renews a lease, if it is free, expired, or already held by {@code owner}.
+   *
+   * @param name name of the lease
+   * @param owner the instance asking for the lease
+   * @param now the current time
+   * @param until when the lease should expire
+   * @return 1 if {@code owner} now holds the lease, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE leader_leases l SET l.owner = :owner, l.expiresAt = :until WHERE l.name = :name"
+          + " AND (l.owner IS NULL OR l.owner = :owner OR l.expiresAt < :now)")
+  int tryAcquire(
+      @Param("name") String name,
+      @Param("owner") String owner,
+      @Param("now") ZonedDateTime now,
+      @Param("until") ZonedDateTime until);
+
+  /**
+   * This method gives up a lease, if {@code owner} holds it.
+   *
+   * @param name name of the lease
+   * @param owner the instance giving up the lease
+   * @return 1 if the lease was given up, 0 if {@code owner} did not hold it
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE leader_leases l SET l.owner = NULL, l.expiresAt = NULL"
+          + " WHERE l.name = :name AND l.owner = :owner")
+  int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -1,9 +1,21 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 /** The MenuItemReviewRepository is a repository for MenuItemReview entities */
 @Repository
-public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {}
+public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {
+  /**
+   * Reads the next chunk of MenuItemReview rows in id order, for jobs that work through the whole
+   * table (see {@code ChunkedStep}).
+   *
+   * @param id only rows with a greater id are returned
+   * @param pageable how many rows to return, e.g. {@code PageRequest.of(0, 100)}
+   * @return the rows
+   */
+  List<MenuItemReview> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+}
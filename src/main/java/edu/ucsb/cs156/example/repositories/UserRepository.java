@@ -2,8 +2,11 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The UserRepository is a repository for User entities. */
 @Repository
@@ -15,4 +18,47 @@ public interface UserRepository extends CrudRepository<User, Long> {
    * @return Optional of User (empty if not found)
    */
   Optional<User> findByEmail(String email);
+
+  /**
+   * This method inserts a user, or, if a user with the same email already exists, makes that user
+   * an admin if the given user is one, in a single atomic statement. Postgres only.
+   *
+   * @param user the user to insert
+   * @return the user's row as it is after the statement
+   */
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO users (email, google_sub, picture_url, full_name, given_name, family_name,"
+              + " email_verified, locale, hosted_domain, admin)"
+              + " VALUES (:#{#user.email}, :#{#user.googleSub}, :#{#user.pictureUrl},"
+              + " :#{#user.fullName}, :#{#user.givenName}, :#{#user.familyName},"
+              + " :#{#user.emailVerified}, :#{#user.locale}, :#{#user.hostedDomain},"
+              + " :#{#user.admin})"
+              + " ON CONFLICT (email) DO UPDATE SET admin = users.admin OR EXCLUDED.admin"
+              + " RETURNING *",
+      nativeQuery = true)
+  User upsertPostgres(@Param("user") User user);
+
+  /**
+   * This method does the same as {@link #upsertPostgres}, using H2's {@code MERGE}.
+   *
+   * @param user the user to insert
+   * @return the user's row as it is after the statement
+   */
+  @Transactional
+  @Query(
+      value =
+          "SELECT * FROM FINAL TABLE (MERGE INTO users u"
+              + " USING (VALUES (CAST(:#{#user.email} AS VARCHAR(255)),"
+              + " CAST(:#{#user.admin} AS BOOLEAN))) s(email, admin)"
+              + " ON u.email = s.email"
+              + " WHEN MATCHED THEN UPDATE SET admin = u.admin OR s.admin"
+              + " WHEN NOT MATCHED THEN INSERT (email, google_sub, picture_url, full_name,"
+              + " given_name, family_name, email_verified, locale, hosted_domain, admin)"
+              + " VALUES (s.email, :#{#user.googleSub}, :#{#user.pictureUrl},"
+              + " :#{#user.fullName}, :#{#user.givenName}, :#{#user.familyName},"
+              + " :#{#user.emailVerified}, :#{#user.locale}, :#{#user.hostedDomain}, s.admin))",
+      nativeQuery = true)
+  User upsertH2(@Param("user") User user);
 }
@@ -1,15 +1,12 @@
 package edu.ucsb.cs156.example.services;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AuthenticatedUser;
 import edu.ucsb.cs156.example.models.CurrentUser;
-import edu.ucsb.cs156.example.repositories.UserRepository;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -28,30 +25,41 @@ import org.springframework.stereotype.Service;
 @Service("currentUser")
 @Primary
 public class CurrentUserServiceImpl extends CurrentUserService {
-  @Autowired private UserRepository userRepository;
+  @Autowired private LoginUserService loginUserService;
+
+  @Autowired private UserCache userCache;
 
   @Autowired GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<String>();
+  @Autowired private RequestMemo requestMemo;
 
   /**
-   * This method returns the current user as a User object.
+   * This method returns the current user as a User object. It is worked out once per request (see
+   * {@link RequestMemo}).
    *
    * @return the current user
    */
   public CurrentUser getCurrentUser() {
-    CurrentUser cu = CurrentUser.builder().user(this.getUser()).roles(this.getRoles()).build();
-    log.info("getCurrentUser returns {}", cu);
-    return cu;
+    return requestMemo.get(
+        "currentUser",
+        () -> {
+          CurrentUser cu =
+              CurrentUser.builder().user(this.getUser()).roles(this.getRoles()).build();
+          log.info("getCurrentUser returns {}", cu);
+          return cu;
+        });
   }
 
   /**
    * This method obtains the current user that is logged in with OAuth2, if any. The parameters are
    * automatically injected by Spring.
    *
-   * <p>This method also has a side effect of storing the user in the database if they are not
-   * already there.
+   * <p>Users who logged in through {@link LoginUserService} have an {@link AuthenticatedUser}
+   * principal, and the user is built from it without touching the database, so a user demoted or
+   * deleted since they logged in keeps that identity, like the roles they were given at login,
+   * until they log in again. For any other OAuth2 session, the user is looked up in the {@link
+   * UserCache}, and only read from the database (and stored there if they are not already there)
+   * when they are not cached.
    *
    * @param securityContext the security context (provided by Spring)
    * @param authentication the authentication token (provided by Spring)
@@ -60,59 +68,36 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   public User getOAuth2AuthenticatedUser(
       SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
-    String email = oAuthUser.getAttribute("email");
-    String googleSub = oAuthUser.getAttribute("sub");
-    String pictureUrl = oAuthUser.getAttribute("picture");
-    String fullName = oAuthUser.getAttribute("name");
-    String givenName = oAuthUser.getAttribute("given_name");
-    String familyName = oAuthUser.getAttribute("family_name");
-    boolean emailVerified = oAuthUser.getAttribute("email_verified");
-    String locale = oAuthUser.getAttribute("locale");
-    String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String, java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}", attrs);
-
-    Optional<User> ou = userRepository.findByEmail(email);
-    if (ou.isPresent()) {
-      User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
-        u.setAdmin(true);
-        userRepository.save(u);
-      }
-      return u;
+    if (oAuthUser instanceof AuthenticatedUser authenticatedUser) {
+      return authenticatedUser.toUser();
     }
 
-    User u =
-        User.builder()
-            .googleSub(googleSub)
-            .email(email)
-            .pictureUrl(pictureUrl)
-            .fullName(fullName)
-            .givenName(givenName)
-            .familyName(familyName)
-            .emailVerified(emailVerified)
-            .locale(locale)
-            .hostedDomain(hostedDomain)
-            .admin(adminEmails.contains(email))
-            .build();
-    userRepository.save(u);
-    return u;
+    String email = oAuthUser.getAttribute("email");
+    Optional<User> cached = userCache.get(email);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    return loginUserService.findOrCreateUser(oAuthUser);
   }
 
   /**
-   * This method returns the current user as a User object.
+   * This method returns the current user as a User object. It is worked out once per request (see
+   * {@link RequestMemo}).
    *
    * @return the current user
    */
   public User getUser() {
-    SecurityContext securityContext = SecurityContextHolder.getContext();
-    Authentication authentication = securityContext.getAuthentication();
+    return requestMemo.get(
+        "user",
+        () -> {
+          SecurityContext securityContext = SecurityContextHolder.getContext();
+          Authentication authentication = securityContext.getAuthentication();
 
-    if (authentication instanceof OAuth2AuthenticationToken) {
-      return getOAuth2AuthenticatedUser(securityContext, authentication);
-    }
-    return null;
+          if (authentication instanceof OAuth2AuthenticationToken) {
+            return getOAuth2AuthenticatedUser(securityContext, authentication);
+          }
+          return null;
+        });
   }
 
   /**
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * A small in-memory map whose entries are forgotten a fixed time after they are put, and which
+ * keeps at most a given number of entries, forgetting the oldest first beyond that. Used by {@link
+ * UserCache} and {@code JobLaunchKeys}.
+ *
+ * <p>The limits are read each time an entry is put, so they can come from fields injected after the
+ * map is created. A time to live of 0 means entries are forgotten straight away. Not thread-safe:
+ * callers synchronize.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class ExpiringMap<K, V> {
+  private final LongSupplier ttlMs;
+  private final IntSupplier maxEntries;
+
+  // every entry lives for the same time, so insertion order is also expiry order
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>();
+
+  /**
+   * Creates an empty map.
+   *
+   * @param ttlMs how long an entry is kept, in milliseconds
+   * @param maxEntries how many entries are kept at most
+   */
+  public ExpiringMap(LongSupplier ttlMs, IntSupplier maxEntries) {
+    this.ttlMs = ttlMs;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Looks up an entry.
+   *
+   * @param key the key
+   * @return the value, or null if there is none or it has expired
+   */
+  public V get(K key) {
+    forgetExpired();
+    Entry<V> entry = entries.get(key);
+    return entry == null ? null : entry.value();
+  }
+
+  /**
+   * Puts an entry, replacing any entry with the same key; it expires one time to live from now.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void put(K key, V value) {
+    forgetExpired();
+    entries.remove(key);
+    add(key, value);
+  }
+
+  /**
+   * Puts an entry unless there is already one with the same key.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the value already there, or null if {@code value} was put
+   */
+  public V putIfAbsent(K key, V value) {
+    forgetExpired();
+    Entry<V> existing = entries.get(key);
+    if (existing != null) {
+      return existing.value();
+    }
+    add(key, value);
+    return null;
+  }
+
+  /**
+   * Removes an entry if, and only if, it still holds the given value.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void remove(K key, V value) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.value() == value) {
+      entries.remove(key);
+    }
+  }
+
+  private void add(K key, V value) {
+    long expiresNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs.getAsLong());
+    entries.put(key, new Entry<>(expiresNanos, value));
+    if (entries.size() > maxEntries.getAsInt()) {
+      entries.remove(entries.keySet().iterator().next());
+    }
+  }
+
+  private void forgetExpired() {
+    long now = System.nanoTime();
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    while (it.hasNext() && it.next().getValue().expiresNanos() - now <= 0) {
+      it.remove();
+    }
+  }
+
+  private record Entry<V>(long expiresNanos, V value) {}
+}
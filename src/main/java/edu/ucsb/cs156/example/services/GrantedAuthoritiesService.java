@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.services;
 
 import java.util.Collection;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -16,17 +17,23 @@ import org.springframework.stereotype.Service;
 @Service("grantedAuthorities")
 public class GrantedAuthoritiesService {
 
+  @Autowired private RequestMemo requestMemo;
+
   /**
    * The function retrieves and logs the granted authorities from the current security context in a
-   * Java application.
+   * Java application. They are retrieved once per request (see {@link RequestMemo}).
    *
    * @return collection of authorities granted to the currently authenticated user.
    */
   public Collection<? extends GrantedAuthority> getGrantedAuthorities() {
-    SecurityContext securityContext = SecurityContextHolder.getContext();
-    Authentication authentication = securityContext.getAuthentication();
-    Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-    log.info("authorities={}", authorities);
-    return authorities;
+    return requestMemo.get(
+        "grantedAuthorities",
+        () -> {
+          SecurityContext securityContext = SecurityContextHolder.getContext();
+          Authentication authentication = securityContext.getAuthentication();
+          Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+          log.info("authorities={}", authorities);
+          return authorities;
+        });
   }
 }
@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AuthenticatedUser;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds or creates the row in the users table for a user who logs in with OAuth2.
+ *
+ * <p>It is used as the OAuth2 user service in {@code SecurityConfig}, so this happens once, at
+ * login, and the principal put into the security context is an {@link AuthenticatedUser} carrying
+ * the user's id, email and admin flag.
+ */
+@Slf4j
+@Service
+public class LoginUserService implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private UserCache userCache;
+
+  @Value("${app.admin.emails}")
+  private Set<String> adminEmails = new HashSet<>();
+
+  @Value("${app.users.postgresUpsert:false}")
+  private boolean postgresUpsert;
+
+  private OAuth2UserService<OAuth2UserRequest, OAuth2User> delegate =
+      new DefaultOAuth2UserService();
+
+  /**
+   * Loads the user from the OAuth2 provider, then finds or creates their row in the users table.
+   *
+   * @param userRequest the request for the user's details (provided by Spring)
+   * @return the principal for the user
+   */
+  @Override
+  public OAuth2User loadUser(OAuth2UserRequest userRequest) {
+    OAuth2User oAuthUser = delegate.loadUser(userRequest);
+    User user = findOrCreateUser(oAuthUser);
+    String nameAttributeKey =
+        userRequest
+            .getClientRegistration()
+            .getProviderDetails()
+            .getUserInfoEndpoint()
+            .getUserNameAttributeName();
+    return new AuthenticatedUser(oAuthUser, nameAttributeKey, user);
+  }
+
+  /**
+   * Finds the user with the OAuth2 user's email in the users table, and stores them there if they
+   * are not already there, in one atomic upsert so that simultaneous first requests from a new user
+   * cannot create two rows. A user whose email is in {@code app.admin.emails} is made an admin. The
+   * user is also put into the {@link UserCache}.
+   *
+   * @param oAuthUser the user as loaded from the OAuth2 provider
+   * @return the user
+   */
+  public User findOrCreateUser(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+    Map<String, Object> attrs = oAuthUser.getAttributes();
+    log.info("attrs={}", attrs);
+
+    boolean emailVerified = oAuthUser.getAttribute("email_verified");
+    User newUser =
+        User.builder()
+            .googleSub(oAuthUser.getAttribute("sub"))
+            .email(email)
+            .pictureUrl(oAuthUser.getAttribute("picture"))
+            .fullName(oAuthUser.getAttribute("name"))
+            .givenName(oAuthUser.getAttribute("given_name"))
+            .familyName(oAuthUser.getAttribute("family_name"))
+            .emailVerified(emailVerified)
+            .locale(oAuthUser.getAttribute("locale"))
+            .hostedDomain(oAuthUser.getAttribute("hd"))
+            .admin(adminEmails.contains(email))
+            .build();
+    User u =
+        postgresUpsert ? userRepository.upsertPostgres(newUser) : userRepository.upsertH2(newUser);
+    userCache.put(u);
+    return u;
+  }
+}
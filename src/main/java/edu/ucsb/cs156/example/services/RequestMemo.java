@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Remembers values for the rest of the current HTTP request, such as the current user, so that they
+ * are worked out at most once per request however many times they are asked for.
+ *
+ * <p>Values are kept as attributes of the request itself, so they are dropped with the request and
+ * never leak into another request that runs on the same (platform or virtual) thread. A value is
+ * only reused while the request is still authenticated as it was when the value was computed.
+ * Outside of a request, e.g. in a job, every call computes the value afresh.
+ *
+ * <p>Each lookup counts towards {@code request.memo}, tagged with the value's {@code name} and a
+ * {@code result} of "hit" or "miss", from which the hit rate can be read.
+ */
+@Service
+public class RequestMemo {
+  private static final String PREFIX = RequestMemo.class.getName() + ".";
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Returns the value remembered under {@code name} for this request, computing and remembering it
+   * if there is none.
+   *
+   * @param name name of the value
+   * @param compute computes the value; it may return null
+   * @param <T> type of the value
+   * @return the value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(String name, Supplier<T> compute) {
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request == null) {
+      return compute.get();
+    }
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    Object memo = request.getAttribute(PREFIX + name, RequestAttributes.SCOPE_REQUEST);
+    if (memo instanceof Memo m && m.authentication() == authentication) {
+      count(name, "hit");
+      return (T) m.value();
+    }
+    count(name, "miss");
+    T value = compute.get();
+    request.setAttribute(
+        PREFIX + name, new Memo(authentication, value), RequestAttributes.SCOPE_REQUEST);
+    return value;
+  }
+
+  private void count(String name, String result) {
+    if (meterRegistry != null) {
+      meterRegistry.counter("request.memo", "name", name, "result", result).increment();
+    }
+  }
+
+  private record Memo(Authentication authentication, Object value) {}
+}
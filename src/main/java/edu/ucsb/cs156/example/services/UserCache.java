@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers recently seen users by email, so that looking up the current user does not query the
+ * users table on every request.
+ *
+ * <p>Users are forgotten after {@code app.users.cache.ttlMs} (0 turns the cache off), and at most
+ * {@code app.users.cache.maxEntries} are kept; beyond that the oldest are forgotten first. Code
+ * that changes a user should {@link #put} the changed user, so that this instance sees the change
+ * at once; other instances see it when their entry expires.
+ */
+@Service
+public class UserCache {
+  @Value("${app.users.cache.ttlMs:60000}")
+  private long ttlMs;
+
+  @Value("${app.users.cache.maxEntries:1000}")
+  private int maxEntries;
+
+  private final ExpiringMap<String, User> users = new ExpiringMap<>(() -> ttlMs, () -> maxEntries);
+
+  /**
+   * Looks up a cached user.
+   *
+   * @param email email address of the user
+   * @return the user, or empty if it is not cached
+   */
+  public synchronized Optional<User> get(String email) {
+    return Optional.ofNullable(users.get(email));
+  }
+
+  /**
+   * Caches a user, replacing any cached copy with the same email.
+   *
+   * @param user the user, as just loaded or saved
+   */
+  public synchronized void put(User user) {
+    users.put(user.getEmail(), user);
+  }
+}
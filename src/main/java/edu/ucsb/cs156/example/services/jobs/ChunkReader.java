@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.List;
+
+/**
+ * Reads the next chunk for a {@link ChunkedStep}: at most {@code limit} rows whose key is greater
+ * than {@code after}, in key order. Usually a keyset query on a repository, e.g. {@code (after,
+ * limit) -> repository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit))}.
+ *
+ * @param <T> type of the rows
+ * @param <K> type of the key the rows are ordered by
+ */
+@FunctionalInterface
+public interface ChunkReader<T, K> {
+  List<T> read(K after, int limit);
+}
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Works through a table in chunks from inside a job, without loading the whole table: a {@link
+ * ChunkReader} reads the next {@code chunkSize} rows after the last key seen, the {@code processor}
+ * turns each row into something to write (or null to skip it), and the {@code writer} writes the
+ * results, e.g. with {@code repository::saveAll}.
+ *
+ * <p>Each chunk is read, processed and written in its own transaction (pass a {@code
+ * TransactionTemplate} as {@code transactions}), which also saves the chunk's last key as the job's
+ * checkpoint. A chunk that fails is rolled back with its checkpoint, so when the job is run again
+ * it carries on after the last chunk that was committed. Only one chunk is held in memory at a
+ * time.
+ *
+ * <pre>{@code
+ * ChunkedStep.<MenuItemReview, Long, MenuItemReview>builder()
+ *     .transactions(transactionTemplate)
+ *     .reader((after, limit) ->
+ *         menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit)))
+ *     .key(MenuItemReview::getId)
+ *     .startAfter(0L)
+ *     .parseKey(Long::valueOf)
+ *     .processor(review -> rescore(review))
+ *     .writer(menuItemReviewRepository::saveAll)
+ *     .total(menuItemReviewRepository::count)
+ *     .build()
+ *     .run(ctx);
+ * }</pre>
+ *
+ * @param <T> type of the rows read
+ * @param <K> type of the key the rows are ordered by
+ * @param <R> type of the results written
+ */
+@Builder
+@Getter
+public class ChunkedStep<T, K, R> {
+
+  @Builder.Default
+  private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
+  private ChunkReader<T, K> reader;
+
+  /** The key of a row; keys must be unique and in the order the reader returns rows. */
+  private Function<T, K> key;
+
+  /** A key lower than every row's key, where a step that has no checkpoint starts. */
+  private K startAfter;
+
+  /** Turns a checkpoint saved by an earlier run back into a key. */
+  private Function<String, K> parseKey;
+
+  private Function<T, R> processor;
+
+  private Consumer<List<R>> writer;
+
+  @Builder.Default private int chunkSize = 100;
+
+  /** How many rows there are, for progress reports; may be left out. */
+  private LongSupplier total;
+
+  /**
+   * Processes every row after the job's checkpoint, if it has one, or after {@code startAfter}.
+   *
+   * @param ctx the job's context
+   * @return how many rows were read in this run
+   * @throws java.util.concurrent.CancellationException if the job is asked to stop; the chunk in
+   *     progress is rolled back
+   */
+  public long run(JobContext ctx) {
+    K after = startAfter;
+    if (ctx.getCheckpoint() != null) {
+      after = parseKey.apply(ctx.getCheckpoint());
+      ctx.log("Resuming after key " + after);
+    }
+    long all = total == null ? 0L : total.getAsLong();
+
+    long read = 0L;
+    long written = 0L;
+    while (true) {
+      K from = after;
+      Chunk<K> chunk = transactions.execute(status -> runChunk(ctx, from));
+      if (chunk == null) {
+        break;
+      }
+      after = chunk.lastKey;
+      read += chunk.read;
+      written += chunk.written;
+      if (total != null) {
+        ctx.progress(read, all);
+      }
+    }
+    ctx.log("Read %d rows, wrote %d".formatted(read, written));
+    return read;
+  }
+
+  private Chunk<K> runChunk(JobContext ctx, K after) {
+    List<T> rows = reader.read(after, chunkSize);
+    if (rows.isEmpty()) {
+      return null;
+    }
+    List<R> results = new ArrayList<>(rows.size());
+    for (T row : rows) {
+      R result = processor.apply(row);
+      if (result != null) {
+        results.add(result);
+      }
+    }
+    if (!results.isEmpty()) {
+      writer.accept(results);
+    }
+    K lastKey = key.apply(rows.get(rows.size() - 1));
+    ctx.checkpoint(String.valueOf(lastKey));
+    return new Chunk<>(lastKey, rows.size(), results.size());
+  }
+
+  private record Chunk<K>(K lastKey, int read, int written) {}
+}
@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * Marks the threads that are running jobs, so that the routing {@code DataSource} set up by {@code
+ * JobDataSourceConfig} hands them connections from the job pool rather than the pool that serves
+ * web requests.
+ */
+public final class JobConnections {
+  private static final ThreadLocal<Boolean> IN_JOB = new ThreadLocal<>();
+
+  private JobConnections() {}
+
+  /** Marks the current thread as running a job. */
+  public static void enter() {
+    IN_JOB.set(Boolean.TRUE);
+  }
+
+  /** Marks the current thread as no longer running a job. */
+  public static void exit() {
+    IN_JOB.remove();
+  }
+
+  /**
+   * Whether the current thread is running a job.
+   *
+   * @return true between {@link #enter()} and {@link #exit()}
+   */
+  public static boolean inJob() {
+    return IN_JOB.get() != null;
+  }
+
+  /**
+   * Wraps a task so that it is marked as running a job on whatever thread it runs on, for work a
+   * job hands off to other threads.
+   *
+   * @param task the task to wrap
+   * @return the wrapped task
+   */
+  public static Runnable inJob(Runnable task) {
+    return () -> {
+      enter();
+      try {
+        task.run();
+      } finally {
+        exit();
+      }
+    };
+  }
+}
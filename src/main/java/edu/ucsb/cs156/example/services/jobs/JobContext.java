@@ -2,19 +2,226 @@ package edu.ucsb.cs156.example.services.jobs;
 
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
-import lombok.AllArgsConstructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-@AllArgsConstructor
+/**
+ * The handle passed to a running job. Each call to {@link #log(String)} appends a single line to
+ * the job's log through the {@link JobLogWriter}, so the cost of logging a line does not grow with
+ * the size of the log.
+ *
+ * <p>Stopping a job is cooperative: when the job is cancelled or times out, the thread running it
+ * is interrupted, which ends blocking calls such as {@code Thread.sleep}, and long-running loops
+ * should call {@link #checkpoint()} (or check {@link #isCancelled()}) regularly.
+ *
+ * <p>A job from the durable queue that was cut short because its instance stopped is run again (see
+ * {@link JobHeartbeats}). Such a job can save how far it has got with {@link #checkpoint(String)}
+ * and, when it starts, pick up from {@link #getCheckpoint()} instead of starting over.
+ *
+ * <p>A job that works through many independent items can spread them over several threads with
+ * {@link #parallel}. The context may be used from those threads.
+ */
 @Slf4j
 public class JobContext {
-  private JobsRepository jobsRepository;
-  private Job job;
+  private final JobLogWriter jobLogWriter;
+  private final JobProgressTracker jobProgressTracker;
+  private final JobsRepository jobsRepository;
+  @Getter private final Job job;
+  private final AtomicLong nextSeq;
+  private volatile String stopStatus;
+  private Thread runner;
+
+  public JobContext(JobLogWriter jobLogWriter, Job job) {
+    this(jobLogWriter, job, 0L);
+  }
+
+  public JobContext(JobLogWriter jobLogWriter, Job job, long firstSeq) {
+    this(jobLogWriter, null, job, firstSeq);
+  }
+
+  public JobContext(
+      JobLogWriter jobLogWriter, JobProgressTracker jobProgressTracker, Job job, long firstSeq) {
+    this(jobLogWriter, jobProgressTracker, null, job, firstSeq);
+  }
+
+  public JobContext(
+      JobLogWriter jobLogWriter,
+      JobProgressTracker jobProgressTracker,
+      JobsRepository jobsRepository,
+      Job job,
+      long firstSeq) {
+    this.jobLogWriter = jobLogWriter;
+    this.jobProgressTracker = jobProgressTracker;
+    this.jobsRepository = jobsRepository;
+    this.job = job;
+    this.nextSeq = new AtomicLong(firstSeq);
+  }
 
   public void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
-    if (jobsRepository != null) jobsRepository.save(job);
+    long seq = nextSeq.getAndIncrement();
+    if (jobLogWriter != null) jobLogWriter.append(job.getId(), seq, String.valueOf(message));
+  }
+
+  /**
+   * Reports how far the job has got, e.g. {@code progress(10_000, 200_000)}. This only updates an
+   * in-memory map (see {@link JobProgressTracker}), so it is cheap enough to call after every item.
+   *
+   * @param done how many items the job has finished
+   * @param total how many items there are in all
+   */
+  public void progress(long done, long total) {
+    if (jobProgressTracker != null) jobProgressTracker.report(job.getId(), done, total);
+  }
+
+  /**
+   * Runs {@code task} on every item, on at most {@code parallelism} virtual threads at once, and
+   * returns once every item has been processed. Progress is reported after each item (see {@link
+   * #progress}), and each item that fails is logged without stopping the others. Once the job is
+   * asked to stop, items that have not started are skipped, and the threads working on the rest are
+   * interrupted. Like the job itself, the threads take their database connections from the job pool
+   * (see {@link JobConnections}).
+   *
+   * @param items the items to process
+   * @param task the work to do on each item
+   * @param parallelism maximum number of items processed at once
+   * @param <T> type of the items
+   * @throws IllegalArgumentException if {@code parallelism} is less than 1
+   * @throws CancellationException if the job was asked to stop
+   * @throws RuntimeException if any item failed, caused by the first failure, with the others
+   *     attached as suppressed exceptions
+   */
+  public <T> void parallel(Collection<T> items, JobItemConsumer<? super T> task, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+    List<T> list = new ArrayList<>(items);
+    int total = list.size();
+    AtomicInteger next = new AtomicInteger();
+    AtomicLong done = new AtomicLong();
+    Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+    Runnable worker =
+        () -> {
+          for (int i = next.getAndIncrement();
+              i < total && !isCancelled();
+              i = next.getAndIncrement()) {
+            try {
+              task.accept(list.get(i));
+            } catch (Exception e) {
+              failures.add(e);
+              log("Item %d failed: %s".formatted(i, e));
+            }
+            progress(done.incrementAndGet(), total);
+          }
+        };
+
+    // close() waits for every worker, and interrupts them if this thread is interrupted meanwhile
+    try (ExecutorService workers =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("job-%d-part-".formatted(job.getId()), 0).factory())) {
+      for (int w = 0; w < Math.min(parallelism, total); w++) {
+        workers.execute(JobConnections.inJob(worker));
+      }
+    }
+
+    checkpoint();
+    log("Processed %d items, %d failed".formatted(done.get(), failures.size()));
+    if (!failures.isEmpty()) {
+      RuntimeException e =
+          new RuntimeException(
+              "%d of %d items failed".formatted(failures.size(), total), failures.poll());
+      failures.forEach(e::addSuppressed);
+      throw e;
+    }
+  }
+
+  /**
+   * Whether the job has been asked to stop, because it was cancelled or ran out of time.
+   *
+   * @return true if the job should stop
+   */
+  public boolean isCancelled() {
+    return stopStatus != null;
+  }
+
+  /**
+   * A point at which the job can safely be stopped.
+   *
+   * @throws CancellationException if the job has been asked to stop
+   */
+  public void checkpoint() {
+    if (isCancelled()) {
+      throw new CancellationException("Job " + stopStatus);
+    }
+  }
+
+  /**
+   * Saves how far the job has got, then acts as {@link #checkpoint()}. Each call writes to the
+   * database, so call it every so often (e.g. after each batch), not after every item.
+   *
+   * @param state whatever the job needs to resume, e.g. the id of the last item it finished
+   * @throws CancellationException if the job has been asked to stop
+   */
+  public void checkpoint(String state) {
+    job.setCheckpoint(state);
+    if (jobsRepository != null) jobsRepository.saveCheckpoint(job.getId(), state);
+    checkpoint();
+  }
+
+  /**
+   * The state last saved with {@link #checkpoint(String)}, including by an earlier run of the job.
+   *
+   * @return the state, or null if the job has never saved one
+   */
+  public String getCheckpoint() {
+    return job.getCheckpoint();
+  }
+
+  /**
+   * The status the job should end with because it was asked to stop.
+   *
+   * @return "cancelled" or "timed_out", or null if the job has not been asked to stop
+   */
+  public String getStopStatus() {
+    return stopStatus;
+  }
+
+  /**
+   * Asks the job to stop and interrupts the thread running it. Only the first request counts.
+   *
+   * @param status the status to end the job with, "cancelled" or "timed_out"
+   */
+  synchronized void stop(String status) {
+    if (stopStatus == null) {
+      stopStatus = status;
+    }
+    if (runner != null) {
+      runner.interrupt();
+    }
+  }
+
+  /** Called on the thread that is about to run the job. */
+  synchronized void attach() {
+    runner = Thread.currentThread();
+  }
+
+  /**
+   * Called on the job's thread once the job has returned. No interrupts are delivered after this,
+   * and any pending interrupt is cleared so that it does not leak into whatever the thread runs
+   * next.
+   */
+  synchronized void detach() {
+    runner = null;
+    Thread.interrupted();
   }
 }
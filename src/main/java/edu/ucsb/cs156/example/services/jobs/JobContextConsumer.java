@@ -3,4 +3,22 @@ package edu.ucsb.cs156.example.services.jobs;
 @FunctionalInterface
 public interface JobContextConsumer {
   void accept(JobContext c) throws Exception;
+
+  /**
+   * How long this job may run before it is stopped with status "timed_out".
+   *
+   * @return the timeout in milliseconds, or 0 to use {@code app.jobs.timeoutMs}
+   */
+  default long timeoutMs() {
+    return 0;
+  }
+
+  /**
+   * Which lane this job waits in for a free job executor thread; see {@link JobScheduler}.
+   *
+   * @return the job's priority
+   */
+  default JobPriority priority() {
+    return JobPriority.NORMAL;
+  }
 }
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.lang.reflect.Modifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converts jobs to and from the JSON descriptor stored on a queued job row, so that a job can be
+ * picked up and run by any instance of the application.
+ *
+ * <p>A descriptor looks like {@code {"type": "edu.ucsb.cs156.example.jobs.TestJob", "params":
+ * {"fail": false, "sleepMs": 1000}}}. Only named, top-level or static classes can be described;
+ * lambdas and anonymous classes capture state that cannot be written down.
+ */
+@Service
+public class JobDescriptors {
+  @Autowired private ObjectMapper mapper;
+
+  /**
+   * The short name used to identify the kind of a job, e.g. {@code TestJob}.
+   *
+   * @param jobFunction the job
+   * @return the simple class name, or "anonymous" for lambdas and anonymous classes
+   */
+  public static String typeOf(JobContextConsumer jobFunction) {
+    Class<?> cls = jobFunction.getClass();
+    return cls.isSynthetic() || cls.isAnonymousClass() ? "anonymous" : cls.getSimpleName();
+  }
+
+  /**
+   * Whether a job can be written as a descriptor.
+   *
+   * @param jobFunction the job
+   * @return true if {@link #write(JobContextConsumer)} can describe it
+   */
+  public boolean isDescribable(JobContextConsumer jobFunction) {
+    Class<?> cls = jobFunction.getClass();
+    return !cls.isSynthetic()
+        && !cls.isAnonymousClass()
+        && !cls.isLocalClass()
+        && (!cls.isMemberClass() || Modifier.isStatic(cls.getModifiers()));
+  }
+
+  /**
+   * Writes a job as a descriptor.
+   *
+   * @param jobFunction the job
+   * @return the JSON descriptor
+   */
+  public String write(JobContextConsumer jobFunction) {
+    ObjectNode descriptor = mapper.createObjectNode();
+    descriptor.put("type", jobFunction.getClass().getName());
+    descriptor.set("params", mapper.valueToTree(jobFunction));
+    return descriptor.toString();
+  }
+
+  /**
+   * Reads a job back from its descriptor.
+   *
+   * @param descriptor the JSON descriptor
+   * @return the job
+   * @throws IllegalArgumentException if the descriptor is malformed or does not name a job class
+   */
+  public JobContextConsumer read(String descriptor) {
+    try {
+      JsonNode tree = mapper.readTree(descriptor);
+      // load without initializing, so naming a class that is not a job runs none of its code
+      Class<?> cls =
+          Class.forName(tree.path("type").asText(), false, JobDescriptors.class.getClassLoader());
+      if (!JobContextConsumer.class.isAssignableFrom(cls)) {
+        throw new IllegalArgumentException("%s is not a job".formatted(cls.getName()));
+      }
+      return mapper.treeToValue(tree.path("params"), cls.asSubclass(JobContextConsumer.class));
+    } catch (JsonProcessingException | ClassNotFoundException e) {
+      throw new IllegalArgumentException("Invalid job descriptor: " + e.getMessage(), e);
+    }
+  }
+}
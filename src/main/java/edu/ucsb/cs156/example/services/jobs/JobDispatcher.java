@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Worker loop for the durable job queue: when {@code app.jobs.queue.enabled} is true, polls the
+ * jobs table every {@code app.jobs.queue.pollIntervalMs} and hands claimed jobs to the job
+ * executor. Each poll claims at most {@code app.jobs.queue.claimBatchSize} jobs, and no more than
+ * the executor has free threads for; jobs it could not start yet are left for other instances.
+ *
+ * <p>Instances with {@code app.jobs.worker.enabled} set to false (see the "web" profile) only add
+ * jobs to the queue, and leave running them to the other instances.
+ */
+@Slf4j
+@Service
+public class JobDispatcher {
+  @Autowired private JobQueue jobQueue;
+
+  @Autowired private JobService jobService;
+
+  @Value("${app.jobs.queue.enabled:false}")
+  private boolean enabled;
+
+  @Value("${app.jobs.worker.enabled:true}")
+  private boolean workerEnabled;
+
+  @Value("${app.jobs.queue.claimBatchSize:4}")
+  private int claimBatchSize;
+
+  @Scheduled(fixedDelayString = "${app.jobs.queue.pollIntervalMs:1000}")
+  public void poll() {
+    if (!enabled || !workerEnabled) {
+      return;
+    }
+    int freeSlots = jobService.freeSlots();
+    if (freeSlots == 0) {
+      return;
+    }
+    for (Job job : jobQueue.claim(Math.min(claimBatchSize, freeSlots))) {
+      log.info("Job {}: claimed", job.getId());
+      jobService.runClaimedJob(job);
+    }
+  }
+}
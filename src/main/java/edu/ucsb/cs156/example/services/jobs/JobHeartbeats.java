@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds jobs left "running" by an instance that stopped, e.g. because its JVM died, before they
+ * finished.
+ *
+ * <p>While this instance holds a job, from when it is handed to the {@link JobScheduler} until it
+ * finishes, the job's heartbeat is updated every {@code app.jobs.heartbeatIntervalMs}. A running
+ * job whose heartbeat is more than {@code app.jobs.orphanAfterMs} old is an orphan. Heartbeats are
+ * sent from a thread of their own, so that other scheduled tasks that run long (e.g. a purge of old
+ * jobs) cannot hold them up and make a live job look orphaned. Orphans are looked for when the app
+ * starts and then every {@code app.jobs.orphanCheckIntervalMs}: one that came from the durable
+ * queue is put back in the queue, to be run again from its last checkpoint (see {@link
+ * JobContext#checkpoint(String)}), and any other fails with status "error".
+ */
+@Slf4j
+@Service
+public class JobHeartbeats {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogWriter jobLogWriter;
+
+  @Autowired private JobLogBroadcaster jobLogBroadcaster;
+
+  @Value("${app.jobs.queue.enabled:false}")
+  private boolean queueEnabled;
+
+  @Value("${app.jobs.heartbeatIntervalMs:15000}")
+  private long heartbeatIntervalMs;
+
+  @Value("${app.jobs.orphanAfterMs:60000}")
+  private long orphanAfterMs;
+
+  private final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+  private final ScheduledExecutorService heartbeats =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("job-heartbeats").daemon().factory());
+
+  @PostConstruct
+  void startHeartbeats() {
+    heartbeats.scheduleWithFixedDelay(
+        this::beat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    heartbeats.shutdownNow();
+  }
+
+  /**
+   * Starts sending heartbeats for a job that this instance is about to run.
+   *
+   * @param job the job
+   */
+  public void track(Job job) {
+    held.add(job.getId());
+  }
+
+  /**
+   * Stops sending heartbeats for a job that has finished or was handed back.
+   *
+   * @param job the job
+   */
+  public void untrack(Job job) {
+    held.remove(job.getId());
+  }
+
+  /** Updates the heartbeat of every job this instance holds. */
+  public void beat() {
+    if (held.isEmpty()) {
+      return;
+    }
+    try {
+      jobsRepository.heartbeat(List.copyOf(held), ZonedDateTime.now());
+    } catch (RuntimeException e) {
+      // an exception would cancel every later heartbeat
+      log.warn("Failed to update job heartbeats", e);
+    }
+  }
+
+  /** Requeues or fails every orphaned job. */
+  @Scheduled(fixedDelayString = "${app.jobs.orphanCheckIntervalMs:60000}")
+  public void recoverOrphans() {
+    ZonedDateTime cutoff = ZonedDateTime.now().minus(Duration.ofMillis(orphanAfterMs));
+    for (Job job : jobsRepository.findOrphans(cutoff)) {
+      if (held.contains(job.getId())) {
+        continue;
+      }
+      String status = queueEnabled && job.getDescriptor() != null ? "queued" : "error";
+      if (jobsRepository.recoverOrphan(job.getId(), cutoff, status) == 1) {
+        recovered(job, status);
+      }
+    }
+  }
+
+  private void recovered(Job job, String status) {
+    JobContext context = new JobContext(jobLogWriter, job, jobLogWriter.nextSeq(job.getId()));
+    if (status.equals("queued")) {
+      context.log("The instance running this job stopped; it will be run again");
+      jobLogWriter.close(job.getId());
+      return;
+    }
+    context.log("The instance running this job stopped before it finished");
+    jobLogWriter.close(job.getId());
+    jobLogBroadcaster.complete(job.getId(), status);
+  }
+}
@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * Work done on one item by {@link JobContext#parallel}.
+ *
+ * @param <T> type of the items
+ */
+@FunctionalInterface
+public interface JobItemConsumer<T> {
+  void accept(T item) throws Exception;
+}
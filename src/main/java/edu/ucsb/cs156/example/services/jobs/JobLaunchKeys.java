@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.ExpiringMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers recent job launches by idempotency key, so that a repeated launch (a double-click, or a
+ * client retrying after a timeout) gets the job that was already started instead of starting
+ * another.
+ *
+ * <p>Keys are forgotten after {@code app.jobs.idempotency.ttlMs}, and at most {@code
+ * app.jobs.idempotency.maxKeys} are kept; beyond that the oldest are forgotten first. A launch that
+ * fails is forgotten at once, so it can be retried with the same key.
+ */
+@Service
+public class JobLaunchKeys {
+  @Value("${app.jobs.idempotency.ttlMs:600000}")
+  private long ttlMs;
+
+  @Value("${app.jobs.idempotency.maxKeys:10000}")
+  private int maxKeys;
+
+  /** The job started, or being started, for each key. */
+  private final ExpiringMap<String, CompletableFuture<Job>> launches =
+      new ExpiringMap<>(() -> ttlMs, () -> maxKeys);
+
+  /**
+   * Launches a job, unless a job was launched with the same key recently.
+   *
+   * @param key the idempotency key
+   * @param launch starts the job
+   * @return the job started by this call, or by the earlier call with the same key; if that call is
+   *     still starting its job, waits for it
+   */
+  public Job launchOnce(String key, Supplier<Job> launch) {
+    CompletableFuture<Job> existing;
+    CompletableFuture<Job> mine = new CompletableFuture<>();
+    synchronized (this) {
+      existing = launches.putIfAbsent(key, mine);
+    }
+
+    if (existing != null) {
+      try {
+        return existing.join();
+      } catch (CompletionException e) {
+        throw (RuntimeException) e.getCause();
+      }
+    }
+
+    try {
+      Job job = launch.get();
+      mine.complete(job);
+      return job;
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        launches.remove(key, mine);
+      }
+      mine.completeExceptionally(e);
+      throw e;
+    }
+  }
+}
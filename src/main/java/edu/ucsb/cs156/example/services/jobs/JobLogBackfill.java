@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * A job that encodes, and usually compresses (see {@link JobLogCodec}), job logs written before log
+ * compression was added, {@code app.jobs.log.backfillBatchSize} at a time:
+ *
+ * <ol>
+ *   <li>logs still stored in the {@code log} column of {@code jobs} are moved into the job's first
+ *       log chunk, and the column is emptied, one job per transaction;
+ *   <li>log chunks whose text is still in {@code payload} are encoded.
+ * </ol>
+ *
+ * <p>It can be stopped and started again at any point; logs that have been moved and chunks that
+ * are already encoded are never touched again.
+ */
+@Service
+public class JobLogBackfill {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogChunksRepository jobLogChunksRepository;
+
+  @Autowired private JobLogCodec jobLogCodec;
+
+  @Autowired private TransactionOperations transactions;
+
+  @Value("${app.jobs.log.backfillBatchSize:500}")
+  private int batchSize;
+
+  /**
+   * Moves every log still stored on its job into chunks, then compresses every uncompressed log
+   * chunk.
+   *
+   * @param ctx the job's context
+   */
+  public void run(JobContext ctx) {
+    moveJobLogs(ctx);
+    compressChunks(ctx);
+  }
+
+  private void moveJobLogs(JobContext ctx) {
+    long total = 0;
+    List<Job> batch = jobsRepository.findByLogIsNotNullOrderByIdAsc(PageRequest.of(0, batchSize));
+    while (!batch.isEmpty()) {
+      ctx.checkpoint();
+      for (Job job : batch) {
+        transactions.executeWithoutResult(status -> moveJobLog(job));
+      }
+      total += batch.size();
+      ctx.log("Moved %d job logs into chunks".formatted(total));
+      batch = jobsRepository.findByLogIsNotNullOrderByIdAsc(PageRequest.of(0, batchSize));
+    }
+    ctx.log("Done: %d job logs moved into chunks".formatted(total));
+  }
+
+  /** The old log comes before anything in the job's chunks, so it is put in front of the first. */
+  private void moveJobLog(Job job) {
+    JobLogChunk first = jobLogChunksRepository.findFirstByJobIdOrderBySeqAsc(job.getId());
+    JobLogChunk chunk;
+    if (first == null) {
+      chunk = jobLogCodec.encode(job.getId(), 0L, job.getLog());
+    } else {
+      String text = job.getLog() + "\n" + jobLogCodec.decode(first);
+      chunk = jobLogCodec.encode(job.getId(), first.getSeq(), text);
+      chunk.setId(first.getId());
+    }
+    jobLogChunksRepository.save(chunk);
+    jobsRepository.clearLog(job.getId());
+  }
+
+  private void compressChunks(JobContext ctx) {
+    long total = 0;
+    List<JobLogChunk> batch = nextBatch();
+    while (!batch.isEmpty()) {
+      ctx.checkpoint();
+      for (JobLogChunk chunk : batch) {
+        String text = chunk.getPayload() == null ? "" : chunk.getPayload();
+        chunk.setData(jobLogCodec.compress(text));
+        chunk.setTextLength(text.length());
+        chunk.setPayload(null);
+      }
+      jobLogChunksRepository.saveAll(batch);
+      total += batch.size();
+      ctx.log("Compressed %d log chunks".formatted(total));
+      batch = nextBatch();
+    }
+    ctx.log("Done: %d log chunks compressed".formatted(total));
+  }
+
+  private List<JobLogChunk> nextBatch() {
+    return jobLogChunksRepository.findByDataIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+  }
+}
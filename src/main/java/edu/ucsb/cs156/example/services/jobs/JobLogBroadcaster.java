@@ -0,0 +1,239 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.models.JobLogTail;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Pushes job log chunks to server-sent-event subscribers.
+ *
+ * <p>Each chunk is sent as a {@code log} event whose id is the chunk's sequence number. A new
+ * subscriber first gets everything written so far as one {@code log} event, then only chunks with a
+ * higher sequence number, so nothing is skipped or repeated. When the job finishes, subscribers get
+ * an {@code end} event carrying the final status and the stream is closed.
+ *
+ * <p>Chunks written on this instance are pushed as soon as {@link JobLogWriter} has written them. A
+ * job running on another instance never publishes here, so every {@code
+ * app.jobs.log.streamPollIntervalMs} each subscriber also reads the log written since its last
+ * event from the database, and gets its {@code end} event once that read shows the job finished.
+ *
+ * <p>Events are sent from a single "job-log-stream" thread, so a slow client never holds up the job
+ * that is writing the log.
+ */
+@Slf4j
+@Service
+public class JobLogBroadcaster {
+  @Value("${app.jobs.log.streamTimeoutMs:1800000}")
+  private long timeoutMs;
+
+  private final ConcurrentMap<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+  private ExecutorService sender =
+      Executors.newSingleThreadExecutor(
+          Thread.ofPlatform().name("job-log-stream").daemon().factory());
+
+  /**
+   * Subscribes to a job's log.
+   *
+   * @param jobId id of the job
+   * @param after sequence number the subscriber has already seen, or -1 for the whole log
+   * @param backlog returns the log written after a given sequence number
+   * @return the emitter the log will be sent to
+   */
+  public SseEmitter subscribe(long jobId, long after, LongFunction<JobLogTail> backlog) {
+    SseEmitter emitter = createEmitter();
+    Subscriber subscriber = new Subscriber(jobId, emitter, backlog);
+    subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+    emitter.onCompletion(() -> unsubscribe(subscriber));
+    emitter.onTimeout(() -> unsubscribe(subscriber));
+    emitter.onError(e -> unsubscribe(subscriber));
+
+    JobLogTail tail = backlog.apply(after);
+    subscriber.start(tail);
+    if (JobService.isFinished(tail.getStatus())) {
+      complete(jobId, tail.getStatus());
+    }
+    return emitter;
+  }
+
+  /**
+   * Sends a newly written log chunk to the job's subscribers, if it has any.
+   *
+   * @param jobId id of the job
+   * @param seq sequence number of the chunk
+   * @param payload text of the chunk
+   */
+  public void publish(long jobId, long seq, String payload) {
+    List<Subscriber> list = subscribers.get(jobId);
+    if (list == null) {
+      return;
+    }
+    sender.execute(
+        () -> {
+          for (Subscriber subscriber : list) {
+            subscriber.log(seq, payload);
+          }
+        });
+  }
+
+  /**
+   * Tells the job's subscribers that it has finished, and closes their streams.
+   *
+   * @param jobId id of the job
+   * @param status the job's final status
+   */
+  public void complete(long jobId, String status) {
+    List<Subscriber> list = subscribers.remove(jobId);
+    if (list == null) {
+      return;
+    }
+    sender.execute(
+        () -> {
+          for (Subscriber subscriber : list) {
+            subscriber.end(status);
+          }
+        });
+  }
+
+  /**
+   * Reads what each subscriber has not seen yet from the database, so that subscribers to jobs
+   * running on other instances get their log and their {@code end} event too.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.log.streamPollIntervalMs:2000}")
+  public void poll() {
+    for (List<Subscriber> list : subscribers.values()) {
+      for (Subscriber subscriber : list) {
+        JobLogTail tail;
+        try {
+          tail = subscriber.backlog.apply(subscriber.lastSeq());
+        } catch (RuntimeException e) {
+          log.warn("Job {}: could not read the log for a subscriber", subscriber.jobId, e);
+          continue;
+        }
+        sender.execute(() -> subscriber.caughtUp(tail));
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    sender.shutdownNow();
+  }
+
+  SseEmitter createEmitter() {
+    return new SseEmitter(timeoutMs);
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.jobId,
+        (id, list) -> {
+          list.remove(subscriber);
+          return list.isEmpty() ? null : list;
+        });
+  }
+
+  /**
+   * One SSE connection. Chunks published before the backlog has been sent are held back, so that
+   * events always go out in sequence order.
+   */
+  private class Subscriber {
+    private final long jobId;
+    private final SseEmitter emitter;
+    private final LongFunction<JobLogTail> backlog;
+    private final List<Map.Entry<Long, String>> pending = new ArrayList<>();
+    private boolean started;
+    private long lastSeq = -1;
+    private String endStatus;
+    private boolean ended;
+
+    private Subscriber(long jobId, SseEmitter emitter, LongFunction<JobLogTail> backlog) {
+      this.jobId = jobId;
+      this.emitter = emitter;
+      this.backlog = backlog;
+    }
+
+    private synchronized long lastSeq() {
+      return lastSeq;
+    }
+
+    /** Sends what a poll of the database found, ending the stream if the job has finished. */
+    private synchronized void caughtUp(JobLogTail tail) {
+      if (!tail.getContent().isEmpty()) {
+        log(tail.getLastSeq(), tail.getContent());
+      }
+      if (JobService.isFinished(tail.getStatus())) {
+        unsubscribe(this);
+        end(tail.getStatus());
+      }
+    }
+
+    private synchronized void start(JobLogTail backlog) {
+      started = true;
+      lastSeq = backlog.getLastSeq();
+      if (!backlog.getContent().isEmpty()) {
+        send(logEvent(lastSeq, backlog.getContent()));
+      }
+      for (Map.Entry<Long, String> chunk : pending) {
+        log(chunk.getKey(), chunk.getValue());
+      }
+      pending.clear();
+      if (endStatus != null) {
+        end(endStatus);
+      }
+    }
+
+    private synchronized void log(long seq, String payload) {
+      if (!started) {
+        pending.add(Map.entry(seq, payload));
+        return;
+      }
+      if (seq <= lastSeq) {
+        return;
+      }
+      lastSeq = seq;
+      send(logEvent(seq, payload));
+    }
+
+    private synchronized void end(String status) {
+      if (ended) {
+        return;
+      }
+      if (!started) {
+        endStatus = status;
+        return;
+      }
+      ended = true;
+      send(SseEmitter.event().name("end").data(status));
+      emitter.complete();
+    }
+
+    private SseEventBuilder logEvent(long seq, String payload) {
+      return SseEmitter.event().name("log").id(Long.toString(seq)).data(payload);
+    }
+
+    private void send(SseEventBuilder event) {
+      try {
+        emitter.send(event);
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Job {}: dropping log subscriber: {}", jobId, e.getMessage());
+        unsubscribe(this);
+      }
+    }
+  }
+}
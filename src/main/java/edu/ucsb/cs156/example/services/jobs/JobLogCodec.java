@@ -0,0 +1,136 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.SneakyThrows;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Encodes the text of job log chunks for storage, compressing it, and decodes it again.
+ *
+ * <p>The first byte of an encoded chunk says how the rest is stored: {@value #PLAIN} for UTF-8
+ * text, {@value #DEFLATE} for zlib-deflated text, {@value #GZIP} for gzipped text. Text is
+ * compressed with {@code app.jobs.log.compression} ({@code deflate}, {@code gzip} or {@code none})
+ * once it is at least {@code app.jobs.log.compressMinBytes} long, and only kept compressed if that
+ * made it smaller. Every format can always be decoded, whatever the current setting.
+ *
+ * <p>Chunks written before compression was added have their text in {@link
+ * JobLogChunk#getPayload()} and no encoded data; they are read as they are.
+ */
+@Service
+public class JobLogCodec {
+  static final byte PLAIN = 0;
+  static final byte DEFLATE = 1;
+  static final byte GZIP = 2;
+
+  @Value("${app.jobs.log.compression:deflate}")
+  private String compression;
+
+  @Value("${app.jobs.log.compressMinBytes:64}")
+  private int compressMinBytes;
+
+  /**
+   * Builds a log chunk holding the given text.
+   *
+   * @param jobId id of the job
+   * @param seq sequence number of the chunk
+   * @param text text of the chunk
+   * @return the chunk, ready to save
+   */
+  public JobLogChunk encode(long jobId, long seq, String text) {
+    return JobLogChunk.builder()
+        .jobId(jobId)
+        .seq(seq)
+        .data(compress(text))
+        .textLength(text.length())
+        .build();
+  }
+
+  /**
+   * Returns the text of a log chunk.
+   *
+   * @param chunk the chunk
+   * @return its text
+   */
+  public String decode(JobLogChunk chunk) {
+    return chunk.getData() == null ? chunk.getPayload() : decompress(chunk.getData());
+  }
+
+  /**
+   * Encodes text, compressing it if that is worthwhile.
+   *
+   * @param text the text
+   * @return the encoded text
+   */
+  public byte[] compress(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length >= compressMinBytes) {
+      byte[] compressed =
+          switch (compression) {
+            case "deflate" -> write(DEFLATE, bytes);
+            case "gzip" -> write(GZIP, bytes);
+            default -> null;
+          };
+      if (compressed != null && compressed.length <= bytes.length) {
+        return compressed;
+      }
+    }
+    byte[] plain = new byte[bytes.length + 1];
+    plain[0] = PLAIN;
+    System.arraycopy(bytes, 0, plain, 1, bytes.length);
+    return plain;
+  }
+
+  /**
+   * Decodes text encoded by {@link #compress(String)}.
+   *
+   * @param data the encoded text
+   * @return the text
+   * @throws IllegalArgumentException if the data is not in a known format
+   */
+  public String decompress(byte[] data) {
+    if (data.length == 0) {
+      throw new IllegalArgumentException("Empty log chunk data");
+    }
+    byte[] bytes =
+        switch (data[0]) {
+          case PLAIN -> Arrays.copyOfRange(data, 1, data.length);
+          case DEFLATE, GZIP -> read(data);
+          default -> throw new IllegalArgumentException("Unknown log chunk format " + data[0]);
+        };
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Writing to memory cannot fail, so the IOException is never actually thrown. */
+  @SneakyThrows(IOException.class)
+  private static byte[] write(byte format, byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 16);
+    out.write(format);
+    try (OutputStream compressor =
+        format == GZIP ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+      compressor.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] read(byte[] data) {
+    InputStream in = new ByteArrayInputStream(data, 1, data.length - 1);
+    try (InputStream decompressor =
+        data[0] == GZIP ? new GZIPInputStream(in) : new InflaterInputStream(in)) {
+      return decompressor.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Corrupt log chunk data: " + e.getMessage(), e);
+    }
+  }
+}
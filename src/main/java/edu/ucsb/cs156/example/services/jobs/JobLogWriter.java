@@ -0,0 +1,219 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes job log lines to the job_log_chunks table.
+ *
+ * <p>When {@code app.jobs.log.buffered} is false (the default), every line is written immediately
+ * as its own chunk. When it is true, lines are collected in a per-job in-memory buffer and written
+ * as a single chunk (group commit), numbered with the sequence number of its last line, once {@code
+ * app.jobs.log.flushLines} lines are waiting, once the oldest waiting line is {@code
+ * app.jobs.log.flushIntervalMs} old (checked by a background flusher), or when the job finishes. A
+ * job gets a buffer when it starts ({@link #open}); lines for a job without one, such as lines
+ * logged after the job finished, are written immediately.
+ *
+ * <p>Chunks are encoded, and usually compressed, by the {@link JobLogCodec}. Each chunk is passed
+ * on to the {@link JobLogBroadcaster} once it has been written. Its length is added to the job's
+ * recorded log length, so that listing jobs never has to add up their chunks; to keep that to one
+ * UPDATE per job at a time, lengths are collected in memory and recorded when the job finishes and
+ * by the background flusher.
+ *
+ * <p>If a flush fails, the lines stay in the buffer and are retried on the next flush. While a
+ * buffer is holding {@code app.jobs.log.maxBufferedLines} lines, further lines for that job are
+ * dropped.
+ */
+@Slf4j
+@Service
+public class JobLogWriter {
+  @Autowired private JobLogChunksRepository jobLogChunksRepository;
+
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private JobLogBroadcaster jobLogBroadcaster;
+
+  @Autowired private JobLogCodec jobLogCodec;
+
+  @Value("${app.jobs.log.buffered:false}")
+  private boolean buffered;
+
+  @Value("${app.jobs.log.flushLines:100}")
+  private int flushLines;
+
+  @Value("${app.jobs.log.flushIntervalMs:1000}")
+  private long flushIntervalMs;
+
+  @Value("${app.jobs.log.maxBufferedLines:10000}")
+  private int maxBufferedLines;
+
+  private final ConcurrentMap<Long, Buffer> buffers = new ConcurrentHashMap<>();
+
+  /** Length of the log written for each job but not yet added to its row. */
+  private final ConcurrentMap<Long, Long> unrecordedLength = new ConcurrentHashMap<>();
+
+  /**
+   * Gives a job a buffer for its lines. Called when the job starts; does nothing when logging is
+   * unbuffered.
+   *
+   * @param jobId id of the job
+   */
+  public void open(long jobId) {
+    if (buffered) {
+      buffers.putIfAbsent(jobId, new Buffer(jobId));
+    }
+  }
+
+  /**
+   * Appends a line to a job's log.
+   *
+   * @param jobId id of the job
+   * @param seq sequence number of the line
+   * @param line the line to append
+   */
+  public void append(long jobId, long seq, String line) {
+    Buffer buffer = buffers.get(jobId);
+    if (buffer == null) {
+      write(jobId, seq, line);
+      return;
+    }
+    synchronized (buffer) {
+      if (buffer.closed) {
+        // the job was closed while this line was on its way in
+        write(jobId, seq, line);
+        return;
+      }
+      if (buffer.lines.size() >= maxBufferedLines) {
+        meterRegistry.counter("jobs.log.lines.dropped").increment();
+        return;
+      }
+      if (buffer.lines.isEmpty()) {
+        buffer.oldestNanos = System.nanoTime();
+      }
+      buffer.lines.add(line);
+      buffer.lastSeq = seq;
+      if (buffer.lines.size() >= flushLines) {
+        flush(buffer);
+      }
+    }
+  }
+
+  /**
+   * The sequence number that comes after the last line written to a job's log, so that a job that
+   * is run again, or logged to after its instance stopped, carries on where its log left off. Lines
+   * still waiting in this instance's buffer are not counted.
+   *
+   * @param jobId id of the job
+   * @return the next sequence number, or 0 if nothing has been written
+   */
+  public long nextSeq(long jobId) {
+    Long last = jobLogChunksRepository.findMaxSeq(jobId);
+    return last == null ? 0L : last + 1;
+  }
+
+  /**
+   * Writes any buffered lines for a job and forgets its buffer. Called when the job finishes.
+   *
+   * @param jobId id of the job
+   */
+  public void close(long jobId) {
+    Buffer buffer = buffers.get(jobId);
+    if (buffer != null) {
+      synchronized (buffer) {
+        flush(buffer);
+        if (!buffer.lines.isEmpty()) {
+          meterRegistry.counter("jobs.log.lines.dropped").increment(buffer.lines.size());
+          log.warn("Job {}: dropping {} unwritten log lines", jobId, buffer.lines.size());
+        }
+        buffer.closed = true;
+        buffers.remove(jobId, buffer);
+      }
+    }
+    recordLogLength(jobId);
+  }
+
+  private void write(long jobId, long seq, String line) {
+    jobLogChunksRepository.save(jobLogCodec.encode(jobId, seq, line));
+    unrecordedLength.merge(jobId, (long) line.length(), Long::sum);
+    jobLogBroadcaster.publish(jobId, seq, line);
+  }
+
+  /**
+   * Background flusher: writes every buffer whose oldest line has waited long enough, then records
+   * the log length written since the last run for every job.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.log.flushIntervalMs:1000}")
+  public void flushDue() {
+    long now = System.nanoTime();
+    for (Buffer buffer : buffers.values()) {
+      synchronized (buffer) {
+        if (!buffer.lines.isEmpty()
+            && now - buffer.oldestNanos >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMs)) {
+          flush(buffer);
+        }
+      }
+    }
+    for (Long jobId : unrecordedLength.keySet()) {
+      recordLogLength(jobId);
+    }
+  }
+
+  /** Adds the log length written for a job since it was last recorded to the job's row. */
+  private void recordLogLength(long jobId) {
+    Long length = unrecordedLength.remove(jobId);
+    if (length == null) {
+      return;
+    }
+    try {
+      jobsRepository.addLogLength(jobId, length);
+    } catch (RuntimeException e) {
+      unrecordedLength.merge(jobId, length, Long::sum);
+      log.warn("Job {}: failed to record log length", jobId, e);
+    }
+  }
+
+  /** Must be called while holding the buffer's monitor. */
+  private void flush(Buffer buffer) {
+    if (buffer.lines.isEmpty()) {
+      return;
+    }
+    String text = String.join("\n", buffer.lines);
+    long start = System.nanoTime();
+    try {
+      jobLogChunksRepository.save(jobLogCodec.encode(buffer.jobId, buffer.lastSeq, text));
+    } catch (RuntimeException e) {
+      meterRegistry.counter("jobs.log.lines.retried").increment(buffer.lines.size());
+      log.warn("Job {}: failed to flush {} log lines", buffer.jobId, buffer.lines.size(), e);
+      return;
+    }
+    meterRegistry.timer("jobs.log.flush").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    buffer.lines = new ArrayList<>();
+    unrecordedLength.merge(buffer.jobId, (long) text.length(), Long::sum);
+    jobLogBroadcaster.publish(buffer.jobId, buffer.lastSeq, text);
+  }
+
+  private static class Buffer {
+    private final long jobId;
+    private long lastSeq;
+    private long oldestNanos;
+    private boolean closed;
+    private List<String> lines = new ArrayList<>();
+
+    private Buffer(long jobId) {
+      this.jobId = jobId;
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.models.JobTypeMetrics;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Records Micrometer metrics about jobs, each tagged with {@code type} (see {@link
+ * JobDescriptors#typeOf}):
+ *
+ * <ul>
+ *   <li>{@code jobs.submitted}: counter of new jobs
+ *   <li>{@code jobs.pending}: gauge of jobs handed to the job executor that have not started yet
+ *   <li>{@code jobs.active}: gauge of running jobs
+ *   <li>{@code jobs.wait}: timer (with histogram) from job creation to start
+ *   <li>{@code jobs.run}: timer (with histogram) of run time, also tagged with the final {@code
+ *       status}
+ *   <li>{@code jobs.finished}: counter of finished jobs, also tagged with the final {@code status}
+ * </ul>
+ *
+ * <p>{@link #snapshot} summarizes them for the admin-only {@code /api/jobs/metrics}. Actuator
+ * endpoints are limited to admins in {@code SecurityConfig}, and only {@code health} is exposed.
+ */
+@Service
+public class JobMetrics {
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private JobsRepository jobsRepository;
+
+  private final ConcurrentMap<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+  /**
+   * Called when a new job is recorded.
+   *
+   * @param job the job
+   */
+  public void submitted(Job job) {
+    meterRegistry.counter("jobs.submitted", "type", typeOf(job)).increment();
+  }
+
+  /**
+   * Called just before a job is handed to the job executor.
+   *
+   * @param job the job
+   */
+  public void handedToExecutor(Job job) {
+    gauge("jobs.pending", pending, typeOf(job)).incrementAndGet();
+  }
+
+  /**
+   * Called when the job executor refuses a job handed to it.
+   *
+   * @param job the job
+   */
+  public void rejectedByExecutor(Job job) {
+    gauge("jobs.pending", pending, typeOf(job)).decrementAndGet();
+  }
+
+  /**
+   * Called when a job handed to the job executor is cancelled before it starts.
+   *
+   * @param job the job
+   */
+  public void cancelledBeforeStart(Job job) {
+    gauge("jobs.pending", pending, typeOf(job)).decrementAndGet();
+  }
+
+  /**
+   * Called when a job starts running.
+   *
+   * @param job the job
+   * @return the start time, to pass to {@link #finished}
+   */
+  public long started(Job job) {
+    String type = typeOf(job);
+    gauge("jobs.pending", pending, type).decrementAndGet();
+    gauge("jobs.active", active, type).incrementAndGet();
+    if (job.getCreatedAt() != null) {
+      Duration wait = Duration.between(job.getCreatedAt(), ZonedDateTime.now());
+      timer("jobs.wait", Tags.of("type", type)).record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Called when a job that {@link #started} has finished.
+   *
+   * @param job the job, with its final status
+   * @param startNanos the value returned by {@link #started}
+   */
+  public void finished(Job job, long startNanos) {
+    String type = typeOf(job);
+    gauge("jobs.active", active, type).decrementAndGet();
+    Tags tags = Tags.of("type", type, "status", job.getStatus());
+    timer("jobs.run", tags).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    meterRegistry.counter("jobs.finished", tags).increment();
+  }
+
+  /**
+   * Summarizes the metrics of every job type seen on this instance or waiting in the durable queue.
+   *
+   * @return one entry per job type, sorted by type
+   */
+  public List<JobTypeMetrics> snapshot() {
+    Map<String, Summary> summaries = new TreeMap<>();
+    for (Object[] row : jobsRepository.countQueuedByJobType()) {
+      String type = row[0] == null ? "unknown" : (String) row[0];
+      summaries.computeIfAbsent(type, t -> new Summary()).queued = (Long) row[1];
+    }
+    for (Meter meter : meterRegistry.getMeters()) {
+      String type = meter.getId().getTag("type");
+      if (type == null || !meter.getId().getName().startsWith("jobs.")) {
+        continue;
+      }
+      Summary summary = summaries.computeIfAbsent(type, t -> new Summary());
+      switch (meter.getId().getName()) {
+        case "jobs.submitted" -> summary.submitted += (long) ((Counter) meter).count();
+        case "jobs.wait" -> summary.wait = (Timer) meter;
+        case "jobs.run" -> {
+          Timer run = (Timer) meter;
+          if ("complete".equals(meter.getId().getTag("status"))) {
+            summary.completed += run.count();
+          } else {
+            summary.failed += run.count();
+          }
+          summary.runTotalMs += run.totalTime(TimeUnit.MILLISECONDS);
+          summary.runMaxMs = Math.max(summary.runMaxMs, run.max(TimeUnit.MILLISECONDS));
+        }
+        default -> {}
+      }
+    }
+
+    List<JobTypeMetrics> result = new ArrayList<>();
+    summaries.forEach(
+        (type, summary) -> {
+          long runs = summary.completed + summary.failed;
+          Timer wait = summary.wait;
+          result.add(
+              JobTypeMetrics.builder()
+                  .jobType(type)
+                  .submitted(summary.submitted)
+                  .queued(summary.queued)
+                  .pending(count(pending, type))
+                  .active(count(active, type))
+                  .completed(summary.completed)
+                  .failed(summary.failed)
+                  .waitMeanMs(wait == null ? 0 : wait.mean(TimeUnit.MILLISECONDS))
+                  .waitMaxMs(wait == null ? 0 : wait.max(TimeUnit.MILLISECONDS))
+                  .runMeanMs(runs == 0 ? 0 : summary.runTotalMs / runs)
+                  .runMaxMs(summary.runMaxMs)
+                  .build());
+        });
+    return result;
+  }
+
+  private static String typeOf(Job job) {
+    return job.getJobType() == null ? "unknown" : job.getJobType();
+  }
+
+  private AtomicInteger gauge(
+      String name, ConcurrentMap<String, AtomicInteger> values, String type) {
+    return values.computeIfAbsent(
+        type, t -> meterRegistry.gauge(name, Tags.of("type", t), new AtomicInteger()));
+  }
+
+  private static long count(ConcurrentMap<String, AtomicInteger> values, String type) {
+    AtomicInteger value = values.get(type);
+    return value == null ? 0 : value.get();
+  }
+
+  private Timer timer(String name, Tags tags) {
+    return Timer.builder(name).tags(tags).publishPercentileHistogram().register(meterRegistry);
+  }
+
+  /** Totals for one job type while building a {@link #snapshot}. */
+  private static class Summary {
+    private long submitted;
+    private long queued;
+    private long completed;
+    private long failed;
+    private double runTotalMs;
+    private double runMaxMs;
+    private Timer wait;
+  }
+}
@@ -0,0 +1,14 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * The lane a job waits in for a free job executor thread; see {@link JobScheduler}. Lanes with a
+ * higher weight ({@code app.jobs.lanes.*Weight}) get more of the free threads.
+ */
+public enum JobPriority {
+  /** Short jobs someone is waiting for. */
+  INTERACTIVE,
+  /** The default. */
+  NORMAL,
+  /** Long-running background work. */
+  BULK
+}
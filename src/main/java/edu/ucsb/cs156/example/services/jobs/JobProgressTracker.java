@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the progress reported by running jobs in memory, so that reporting progress costs a map
+ * update rather than a database write.
+ *
+ * <p>Progress that has changed is written to the job's row every {@code
+ * app.jobs.progress.persistIntervalMs}, so other instances can see it too, and once more when the
+ * job finishes. A periodic write only applies while the job's row is still "running", so one that
+ * races with the job finishing cannot replace its final progress with older values.
+ */
+@Slf4j
+@Service
+public class JobProgressTracker {
+  @Autowired private JobsRepository jobsRepository;
+
+  private final ConcurrentMap<Long, Progress> progress = new ConcurrentHashMap<>();
+
+  /**
+   * Records a job's progress.
+   *
+   * @param jobId id of the job
+   * @param done how many items the job has finished
+   * @param total how many items there are in all
+   */
+  public void report(long jobId, long done, long total) {
+    progress.put(jobId, new Progress(done, total, false));
+  }
+
+  /**
+   * Copies a job's latest progress onto the job, ready for the job's final save, and forgets it.
+   *
+   * @param job the job, which has finished
+   */
+  public void finished(Job job) {
+    Progress last = progress.remove(job.getId());
+    if (last != null) {
+      job.setProgressDone(last.done());
+      job.setProgressTotal(last.total());
+    }
+  }
+
+  /**
+   * Returns the progress of a job running on this instance.
+   *
+   * @param jobId id of the job
+   * @return the job's latest progress, or null if it is not running here or has not reported any
+   */
+  public JobProgress get(long jobId) {
+    Progress last = progress.get(jobId);
+    if (last == null) {
+      return null;
+    }
+    return JobProgress.builder()
+        .jobId(jobId)
+        .status("running")
+        .done(last.done())
+        .total(last.total())
+        .build();
+  }
+
+  /** Writes progress that has changed since the last time to the jobs' rows. */
+  @Scheduled(fixedDelayString = "${app.jobs.progress.persistIntervalMs:5000}")
+  public void persist() {
+    for (Map.Entry<Long, Progress> entry : progress.entrySet()) {
+      Progress last = entry.getValue();
+      if (last.saved()) {
+        continue;
+      }
+      try {
+        jobsRepository.updateProgress(entry.getKey(), last.done(), last.total());
+      } catch (RuntimeException e) {
+        log.warn("Job {}: failed to save progress", entry.getKey(), e);
+        continue;
+      }
+      // a newer report since the read above stays unsaved
+      progress.replace(entry.getKey(), last, new Progress(last.done(), last.total(), true));
+    }
+  }
+
+  private record Progress(long done, long total, boolean saved) {}
+}
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Claims queued jobs for this instance to run, so that several instances can pull from the jobs
+ * table at the same time without two of them running the same job.
+ *
+ * <p>On Postgres ({@code app.jobs.queue.skipLocked=true}), queued rows are selected with {@code FOR
+ * UPDATE SKIP LOCKED} and marked running in the same transaction, so concurrent claimers never wait
+ * on each other. Elsewhere (e.g. H2), each candidate row is claimed with a conditional update that
+ * only succeeds while the row is still queued.
+ */
+@Service
+public class JobQueue {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Lazy @Autowired private JobQueue self;
+
+  @Value("${app.jobs.queue.skipLocked:false}")
+  private boolean skipLocked;
+
+  /**
+   * Claims up to {@code limit} queued jobs, oldest first, and marks them running with a first
+   * heartbeat (see {@link JobHeartbeats}) and a new claim token.
+   *
+   * @param limit maximum number of jobs to claim
+   * @return the claimed jobs
+   */
+  public List<Job> claim(int limit) {
+    if (skipLocked) {
+      return self.claimSkipLocked(limit);
+    }
+    List<Job> claimed = new ArrayList<>();
+    for (Long id : jobsRepository.findQueuedIds(PageRequest.of(0, limit))) {
+      if (jobsRepository.claimQueued(id, ZonedDateTime.now(), UUID.randomUUID().toString()) == 1) {
+        jobsRepository.findById(id).ifPresent(claimed::add);
+      }
+    }
+    return claimed;
+  }
+
+  @Transactional
+  public List<Job> claimSkipLocked(int limit) {
+    List<Job> jobs = jobsRepository.findQueuedForUpdateSkipLocked(limit);
+    ZonedDateTime now = ZonedDateTime.now();
+    for (Job job : jobs) {
+      job.setStatus("running");
+      job.setHeartbeatAt(now);
+      job.setClaimToken(UUID.randomUUID().toString());
+    }
+    return jobs;
+  }
+}
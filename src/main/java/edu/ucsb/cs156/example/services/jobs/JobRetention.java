@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes old job records every {@code app.jobs.retention.intervalMs}.
+ *
+ * <p>For every status of a finished job (see {@link JobService#isFinished}), jobs created more than
+ * {@code app.jobs.retention.maxAgeDays} days ago are deleted, and then all but the newest {@code
+ * app.jobs.retention.maxCountPerStatus} jobs. Either limit is turned off by setting it to 0. Queued
+ * and running jobs are never deleted.
+ *
+ * <p>Jobs are deleted {@code app.jobs.retention.batchSize} at a time, each batch with one {@code
+ * DELETE ... WHERE id IN (...)} statement in its own transaction, so a large purge neither holds
+ * long locks nor loads any entities.
+ *
+ * <p>Only the instance that holds the {@value #LEASE} lease (see {@link LeaderElection}) purges, so
+ * several instances do not race to delete the same rows.
+ */
+@Slf4j
+@Service
+public class JobRetention {
+  /** Name of the leader lease for purging old jobs. */
+  public static final String LEASE = "job-retention";
+
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private LeaderElection leaderElection;
+
+  @Value("${app.jobs.retention.maxAgeDays:30}")
+  private int maxAgeDays;
+
+  @Value("${app.jobs.retention.maxCountPerStatus:1000}")
+  private int maxCountPerStatus;
+
+  @Value("${app.jobs.retention.batchSize:500}")
+  private int batchSize;
+
+  /**
+   * Applies the retention policy, if this instance is the leader.
+   *
+   * @return the number of jobs deleted
+   */
+  @Scheduled(
+      initialDelayString = "${app.jobs.retention.intervalMs:3600000}",
+      fixedDelayString = "${app.jobs.retention.intervalMs:3600000}")
+  public int purge() {
+    if (!leaderElection.isLeader(LEASE)) {
+      return 0;
+    }
+    int deleted = 0;
+    for (String status : jobsRepository.findDistinctStatuses()) {
+      if (!JobService.isFinished(status)) {
+        continue;
+      }
+      if (maxAgeDays > 0) {
+        ZonedDateTime cutoff = ZonedDateTime.now().minus(Duration.ofDays(maxAgeDays));
+        deleted +=
+            deleteInBatches(
+                () ->
+                    jobsRepository.findIdsByStatusCreatedBefore(
+                        status, cutoff, PageRequest.of(0, batchSize)));
+      }
+      if (maxCountPerStatus > 0) {
+        // the newest job past the limit; it and every older job with this status go
+        List<Long> firstExcess =
+            jobsRepository.findIdsByStatusNewestFirst(status, PageRequest.of(maxCountPerStatus, 1));
+        if (!firstExcess.isEmpty()) {
+          long maxId = firstExcess.get(0);
+          deleted +=
+              deleteInBatches(
+                  () ->
+                      jobsRepository.findIdsByStatusUpTo(
+                          status, maxId, PageRequest.of(0, batchSize)));
+        }
+      }
+    }
+    if (deleted > 0) {
+      log.info("Job retention: deleted {} jobs", deleted);
+    }
+    return deleted;
+  }
+
+  private int deleteInBatches(Supplier<List<Long>> nextBatch) {
+    int deleted = 0;
+    List<Long> ids;
+    do {
+      ids = nextBatch.get();
+      if (!ids.isEmpty()) {
+        deleted += jobsRepository.deleteByIdIn(ids);
+      }
+    } while (ids.size() == batchSize);
+    return deleted;
+  }
+}
@@ -0,0 +1,223 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides which waiting job runs next on this instance's job executor.
+ *
+ * <p>Jobs wait in one lane per {@link JobPriority}. Whenever fewer than {@code
+ * app.jobs.executor.concurrency} jobs are running, the next job is taken from a lane chosen by
+ * smooth weighted round-robin, so each lane gets a share of the threads in proportion to its weight
+ * ({@code app.jobs.lanes.interactiveWeight}, {@code normalWeight}, {@code bulkWeight}) and no lane
+ * starves. Within a lane, jobs run in the order they arrived, except that jobs of a user who
+ * already has {@code app.jobs.perUserConcurrency} jobs running (0 for no limit) are passed over.
+ * Jobs without a user, such as scheduled jobs, are limited separately by {@code
+ * app.jobs.systemConcurrency} (0, the default, for no limit).
+ *
+ * <p>At most {@code app.jobs.executor.queueCapacity} jobs may wait; further jobs are rejected with
+ * a {@link TaskRejectedException}.
+ */
+@Slf4j
+@Service
+public class JobScheduler {
+  @Lazy @Autowired private JobService jobService;
+
+  @Value("${app.jobs.executor.concurrency:4}")
+  private int concurrency;
+
+  @Value("${app.jobs.executor.queueCapacity:100}")
+  private int queueCapacity;
+
+  @Value("${app.jobs.perUserConcurrency:0}")
+  private int perUserConcurrency;
+
+  @Value("${app.jobs.systemConcurrency:0}")
+  private int systemConcurrency;
+
+  @Value("${app.jobs.lanes.interactiveWeight:6}")
+  private int interactiveWeight;
+
+  @Value("${app.jobs.lanes.normalWeight:3}")
+  private int normalWeight;
+
+  @Value("${app.jobs.lanes.bulkWeight:1}")
+  private int bulkWeight;
+
+  private final Map<JobPriority, Lane> lanes = new EnumMap<>(JobPriority.class);
+  private final Map<Long, Integer> runningByUser = new HashMap<>();
+  private int running;
+  private int waiting;
+
+  @PostConstruct
+  void createLanes() {
+    lanes.put(JobPriority.INTERACTIVE, new Lane(interactiveWeight));
+    lanes.put(JobPriority.NORMAL, new Lane(normalWeight));
+    lanes.put(JobPriority.BULK, new Lane(bulkWeight));
+  }
+
+  /**
+   * Adds a job to its lane and starts it as soon as it is its turn.
+   *
+   * @param job the job
+   * @param jobFunction the work to run
+   * @throws TaskRejectedException if {@code app.jobs.executor.queueCapacity} jobs are already
+   *     waiting
+   */
+  public synchronized void submit(Job job, JobContextConsumer jobFunction) {
+    boolean canStartNow = running < concurrency && mayStart(job);
+    if (!canStartNow && waiting >= queueCapacity) {
+      throw new TaskRejectedException("Job executor is at capacity; try again later");
+    }
+    lanes.get(jobFunction.priority()).jobs.add(new Waiting(job, jobFunction));
+    waiting++;
+    dispatch();
+  }
+
+  /**
+   * How many more jobs could start right now: free threads, less the jobs already waiting for one.
+   *
+   * @return the number of free slots, never negative
+   */
+  public synchronized int freeSlots() {
+    return Math.max(0, concurrency - running - waiting);
+  }
+
+  /**
+   * Takes a job that has not started yet out of its lane, so that it never runs.
+   *
+   * @param jobId id of the job
+   * @return the job, or null if it is not waiting on this instance
+   */
+  public synchronized Job cancel(long jobId) {
+    for (Lane lane : lanes.values()) {
+      Iterator<Waiting> it = lane.jobs.iterator();
+      while (it.hasNext()) {
+        Waiting w = it.next();
+        if (w.job.getId() == jobId) {
+          it.remove();
+          waiting--;
+          return w.job;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Called by {@link JobService#runJobAsync} when a job it started has finished, freeing its thread
+   * for the next job.
+   *
+   * @param job the job
+   */
+  public synchronized void finished(Job job) {
+    release(job);
+    dispatch();
+  }
+
+  /**
+   * Starts waiting jobs while there are free threads. Also runs periodically, in case the executor
+   * refused a job earlier.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.lanes.retryIntervalMs:1000}")
+  public synchronized void dispatch() {
+    while (running < concurrency) {
+      Lane lane = nextLane();
+      if (lane == null) {
+        return;
+      }
+      Waiting next = lane.takeFirstEligible();
+      waiting--;
+      running++;
+      runningByUser.merge(userOf(next.job), 1, Integer::sum);
+      try {
+        jobService.runJobAsync(next.job, next.jobFunction);
+      } catch (TaskRejectedException e) {
+        log.warn("Job {}: refused by the job executor, will retry", next.job.getId());
+        lane.jobs.addFirst(next);
+        waiting++;
+        release(next.job);
+        return;
+      }
+    }
+  }
+
+  private void release(Job job) {
+    running--;
+    runningByUser.computeIfPresent(userOf(job), (user, count) -> count == 1 ? null : count - 1);
+  }
+
+  /** Smooth weighted round-robin over the lanes that have a job that may start now. */
+  private Lane nextLane() {
+    Lane best = null;
+    int totalWeight = 0;
+    for (Lane lane : lanes.values()) {
+      if (!lane.hasEligible()) {
+        continue;
+      }
+      lane.currentWeight += lane.weight;
+      totalWeight += lane.weight;
+      if (best == null || lane.currentWeight > best.currentWeight) {
+        best = lane;
+      }
+    }
+    if (best != null) {
+      best.currentWeight -= totalWeight;
+    }
+    return best;
+  }
+
+  private boolean mayStart(Job job) {
+    long user = userOf(job);
+    int limit = user == 0L ? systemConcurrency : perUserConcurrency;
+    return limit <= 0 || runningByUser.getOrDefault(user, 0) < limit;
+  }
+
+  private static long userOf(Job job) {
+    return job.getCreatedBy() == null ? 0L : job.getCreatedBy().getId();
+  }
+
+  private record Waiting(Job job, JobContextConsumer jobFunction) {}
+
+  private class Lane {
+    private final int weight;
+    private final ArrayDeque<Waiting> jobs = new ArrayDeque<>();
+    private int currentWeight;
+
+    private Lane(int weight) {
+      this.weight = weight;
+    }
+
+    private boolean hasEligible() {
+      for (Waiting w : jobs) {
+        if (mayStart(w.job)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private Waiting takeFirstEligible() {
+      Iterator<Waiting> it = jobs.iterator();
+      while (true) {
+        Waiting w = it.next();
+        if (mayStart(w.job)) {
+          it.remove();
+          return w;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import java.time.ZonedDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs jobs on recurring schedules (see {@link JobSchedule}) through {@link JobService}.
+ *
+ * <p>Every {@code app.jobs.schedules.pollIntervalMs}, the instance that holds the {@value #LEASE}
+ * lease (see {@link LeaderElection}) starts the jobs whose schedules are due. Each run is claimed
+ * by moving the schedule's next run time on in the database first, so a run is started exactly once
+ * even if two instances briefly both think they are leader. A schedule whose runs were missed, e.g.
+ * while every instance was down, runs once and then continues from the current time.
+ *
+ * <p>Set {@code app.jobs.schedules.enabled} to false to stop this instance from running schedules.
+ */
+@Slf4j
+@Service
+public class JobSchedules {
+  /** Name of the leader lease for running schedules. */
+  public static final String LEASE = "job-schedules";
+
+  @Autowired private JobSchedulesRepository jobSchedulesRepository;
+
+  @Autowired private JobService jobService;
+
+  @Autowired private JobDescriptors jobDescriptors;
+
+  @Autowired private LeaderElection leaderElection;
+
+  @Value("${app.jobs.schedules.enabled:true}")
+  private boolean enabled;
+
+  /**
+   * Checks and saves a schedule, working out when it next runs.
+   *
+   * @param schedule the schedule
+   * @return the saved schedule
+   * @throws IllegalArgumentException if the cron expression or the job descriptor is invalid
+   */
+  public JobSchedule save(JobSchedule schedule) {
+    CronExpression cron = CronExpression.parse(schedule.getCron());
+    jobDescriptors.read(schedule.getDescriptor());
+    schedule.setNextRunAt(schedule.getEnabled() ? cron.next(ZonedDateTime.now()) : null);
+    return jobSchedulesRepository.save(schedule);
+  }
+
+  /** Starts the jobs whose schedules are due, if this instance is the leader. */
+  @Scheduled(fixedDelayString = "${app.jobs.schedules.pollIntervalMs:10000}")
+  public void runDue() {
+    if (!enabled || !leaderElection.isLeader(LEASE)) {
+      return;
+    }
+    ZonedDateTime now = ZonedDateTime.now();
+    for (JobSchedule schedule :
+        jobSchedulesRepository.findByEnabledTrueAndNextRunAtLessThanEqual(now)) {
+      ZonedDateTime next = CronExpression.parse(schedule.getCron()).next(now);
+      if (jobSchedulesRepository.claimRun(schedule.getId(), schedule.getNextRunAt(), next, now)
+          == 1) {
+        run(schedule);
+      }
+    }
+  }
+
+  private void run(JobSchedule schedule) {
+    try {
+      Job job = jobService.runAsJob(jobDescriptors.read(schedule.getDescriptor()));
+      jobSchedulesRepository.setLastJobId(schedule.getId(), job.getId());
+      log.info("Schedule {}: started job {}", schedule.getName(), job.getId());
+    } catch (RuntimeException e) {
+      log.warn("Schedule {}: could not start its job", schedule.getName(), e);
+    }
+  }
+}
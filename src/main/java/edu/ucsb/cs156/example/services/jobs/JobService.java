@@ -1,44 +1,276 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.JobLogTail;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+@Slf4j
 @Service
 public class JobService {
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogChunksRepository jobLogChunksRepository;
+
+  @Autowired private JobLogWriter jobLogWriter;
+
+  @Autowired private JobLogBroadcaster jobLogBroadcaster;
+
+  @Autowired private JobLogCodec jobLogCodec;
+
+  @Autowired private JobProgressTracker jobProgressTracker;
+
+  @Autowired private JobLaunchKeys jobLaunchKeys;
+
   @Autowired private CurrentUserService currentUserService;
 
-  @Lazy @Autowired private JobService self;
+  @Autowired private JobDescriptors jobDescriptors;
+
+  @Autowired private JobMetrics jobMetrics;
+
+  @Autowired private RunningJobs runningJobs;
+
+  @Autowired private JobScheduler jobScheduler;
+
+  @Autowired private JobHeartbeats jobHeartbeats;
 
+  @Value("${app.jobs.queue.enabled:false}")
+  private boolean queueEnabled;
+
+  /**
+   * Records a new job and runs it.
+   *
+   * <p>When the durable queue is enabled ({@code app.jobs.queue.enabled}) and the job can be
+   * described (see {@link JobDescriptors}), the job is only recorded, with status "queued", and
+   * {@link JobDispatcher} on some instance will claim and run it. Otherwise it is handed to this
+   * instance's {@link JobScheduler} right away.
+   *
+   * @param jobFunction the work to run
+   * @return the job, with status "queued" or "running"
+   * @throws TaskRejectedException if too many jobs are waiting; the job is then recorded with
+   *     status "rejected"
+   */
   public Job runAsJob(JobContextConsumer jobFunction) {
-    Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
+    Job job =
+        Job.builder()
+            .createdBy(currentUserService.getUser())
+            .jobType(JobDescriptors.typeOf(jobFunction))
+            .status("running")
+            .build();
+
+    if (queueEnabled && jobDescriptors.isDescribable(jobFunction)) {
+      job.setStatus("queued");
+      job.setDescriptor(jobDescriptors.write(jobFunction));
+      jobsRepository.save(job);
+      jobMetrics.submitted(job);
+      return job;
+    }
 
     jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+    jobMetrics.submitted(job);
+    jobMetrics.handedToExecutor(job);
+    jobHeartbeats.track(job);
+    try {
+      jobScheduler.submit(job, jobFunction);
+    } catch (TaskRejectedException e) {
+      jobHeartbeats.untrack(job);
+      jobMetrics.rejectedByExecutor(job);
+      job.setStatus("rejected");
+      jobsRepository.save(job);
+      throw e;
+    }
 
     return job;
   }
 
-  @Async
+  /**
+   * Records a new job and runs it, like {@link #runAsJob(JobContextConsumer)}, unless this user
+   * recently launched a job with the same idempotency key; that job is then returned instead.
+   *
+   * @param jobFunction the work to run
+   * @param idempotencyKey key chosen by the client, or null to always launch
+   * @return the job
+   */
+  public Job runAsJob(JobContextConsumer jobFunction, String idempotencyKey) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return runAsJob(jobFunction);
+    }
+    User user = currentUserService.getUser();
+    String key = (user == null ? 0L : user.getId()) + ":" + idempotencyKey;
+    return jobLaunchKeys.launchOnce(key, () -> runAsJob(jobFunction));
+  }
+
+  /**
+   * Runs a job claimed from the durable queue. If too many jobs are waiting, the job is put back in
+   * the queue; if its descriptor cannot be read, the job fails.
+   *
+   * @param job the claimed job, with status "running"
+   */
+  public void runClaimedJob(Job job) {
+    JobContextConsumer jobFunction;
+    try {
+      jobFunction = jobDescriptors.read(job.getDescriptor());
+    } catch (IllegalArgumentException e) {
+      job.setStatus("error");
+      new JobContext(jobLogWriter, job).log(e.getMessage());
+      finish(job);
+      return;
+    }
+
+    jobMetrics.handedToExecutor(job);
+    jobHeartbeats.track(job);
+    try {
+      jobScheduler.submit(job, jobFunction);
+    } catch (TaskRejectedException e) {
+      jobHeartbeats.untrack(job);
+      jobMetrics.rejectedByExecutor(job);
+      log.info("Job {}: executor full, returning job to the queue", job.getId());
+      job.setStatus("queued");
+      jobsRepository.save(job);
+    }
+  }
+
+  /**
+   * How many more jobs this instance could start right now, without any of them waiting for a
+   * thread. {@link JobDispatcher} claims at most this many jobs from the durable queue, so that
+   * jobs it cannot start yet stay in the queue for other instances.
+   *
+   * @return the number of free job threads, see {@link JobScheduler#freeSlots}
+   */
+  public int freeSlots() {
+    return jobScheduler.freeSlots();
+  }
+
+  /**
+   * Runs a job on the job executor. Called by {@link JobScheduler} when it is the job's turn.
+   *
+   * @param job the job
+   * @param jobFunction the work to run
+   */
+  @Async("jobExecutor")
   public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
+    JobConnections.enter();
+    try {
+      runJob(job, jobFunction);
+    } finally {
+      jobHeartbeats.untrack(job);
+      jobScheduler.finished(job);
+      JobConnections.exit();
+    }
+  }
 
+  private void runJob(Job job, JobContextConsumer jobFunction) {
+    jobLogWriter.open(job.getId());
+    JobContext context =
+        new JobContext(
+            jobLogWriter,
+            jobProgressTracker,
+            jobsRepository,
+            job,
+            jobLogWriter.nextSeq(job.getId()));
+    if (context.getCheckpoint() != null) {
+      context.log("Resuming from checkpoint");
+    }
+    long start = jobMetrics.started(job);
+
+    Exception failure = null;
+    runningJobs.started(context, jobFunction.timeoutMs());
     try {
       jobFunction.accept(context);
     } catch (Exception e) {
+      failure = e;
+    } finally {
+      runningJobs.finished(context);
+    }
+
+    if (failure == null) {
+      job.setStatus("complete");
+    } else if (context.isCancelled()) {
+      job.setStatus(context.getStopStatus());
+      context.log(context.getStopStatus().equals("cancelled") ? "Cancelled" : "Timed out");
+    } else {
       job.setStatus("error");
-      context.log(e.getMessage());
-      return;
+      context.log(failure.getMessage());
     }
 
-    job.setStatus("complete");
-    jobsRepository.save(job);
+    jobMetrics.finished(job, start);
+    finish(job);
+  }
+
+  /**
+   * Cancels a job. A queued job, or one still waiting for its turn in this instance's {@link
+   * JobScheduler}, is cancelled at once; a job running on this instance is asked to stop (see
+   * {@link JobContext}) and ends with status "cancelled" once it does.
+   *
+   * @param jobId id of the job
+   * @return a message saying what happened
+   */
+  public String cancelJob(long jobId) {
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    if (jobsRepository.cancelQueued(jobId) == 1) {
+      jobLogBroadcaster.complete(jobId, "cancelled");
+      return "Job with id %d cancelled".formatted(jobId);
+    }
+    Job waiting = jobScheduler.cancel(jobId);
+    if (waiting != null) {
+      jobHeartbeats.untrack(waiting);
+      jobMetrics.cancelledBeforeStart(waiting);
+      waiting.setStatus("cancelled");
+      new JobContext(jobLogWriter, waiting, jobLogWriter.nextSeq(jobId)).log("Cancelled");
+      finish(waiting);
+      return "Job with id %d cancelled".formatted(jobId);
+    }
+    if (runningJobs.cancel(jobId)) {
+      return "Cancelling job with id %d".formatted(jobId);
+    }
+    if (isFinished(job.getStatus())) {
+      return "Job with id %d has already finished".formatted(jobId);
+    }
+    return "Job with id %d is not running on this instance".formatted(jobId);
+  }
+
+  /**
+   * Writes out the rest of a finished job's log, saves its final status and progress and tells
+   * watchers. Nothing is saved if the job has been recovered by another instance in the meantime;
+   * streams of its log opened on this instance then end with the status the row has now.
+   */
+  private void finish(Job job) {
+    jobLogWriter.close(job.getId());
+    jobProgressTracker.finished(job);
+    String status = job.getStatus();
+    if (jobsRepository.finishRunning(job, ZonedDateTime.now()) == 0) {
+      log.warn("Job {}: no longer held by this instance; not saving {}", job.getId(), status);
+      // streams opened on this instance still end, with whatever the row says now
+      status = jobsRepository.findById(job.getId()).map(Job::getStatus).orElse(status);
+    }
+    jobLogBroadcaster.complete(job.getId(), status);
+  }
+
+  /**
+   * Whether a job with the given status has stopped for good.
+   *
+   * @param status the job's status
+   * @return false while the job is queued or running, true afterwards
+   */
+  public static boolean isFinished(String status) {
+    return !"queued".equals(status) && !"running".equals(status);
   }
 
   public String getJobLogs(Long jobId) {
@@ -47,7 +279,95 @@ public class JobService {
             .findById(jobId)
             .orElseThrow(() -> new IllegalArgumentException("Job not found"));
 
-    String log = job.getLog();
-    return log != null ? log : "";
+    return getJobLogs(job);
+  }
+
+  /**
+   * Reassembles the full log of a job: any text stored directly on the job row (jobs that predate
+   * chunked logs), followed by its log chunks in sequence order.
+   *
+   * @param job the job
+   * @return the log, or the empty string if nothing has been logged
+   */
+  public String getJobLogs(Job job) {
+    return join(job.getLog(), jobLogChunksRepository.findByJobIdOrderBySeqAsc(job.getId()));
+  }
+
+  /**
+   * Returns the part of a job's log written after a given sequence number, so that watchers only
+   * fetch what is new.
+   *
+   * @param jobId id of the job
+   * @param after sequence number from the previous call's {@code lastSeq}, or -1 for the whole log
+   * @return the new part of the log
+   */
+  public JobLogTail tailJobLogs(long jobId, long after) {
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    List<JobLogChunk> chunks =
+        jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(jobId, after);
+
+    return JobLogTail.builder()
+        .jobId(jobId)
+        .status(job.getStatus())
+        .content(join(after < 0 ? job.getLog() : null, chunks))
+        .lastSeq(chunks.isEmpty() ? after : chunks.get(chunks.size() - 1).getSeq())
+        .build();
+  }
+
+  /**
+   * Returns how far a job has got. Progress of a job running on this instance comes from memory;
+   * otherwise it is what was last saved to the job's row.
+   *
+   * @param jobId id of the job
+   * @return the job's progress
+   */
+  public JobProgress getProgress(long jobId) {
+    JobProgress live = jobProgressTracker.get(jobId);
+    if (live != null) {
+      return live;
+    }
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    return JobProgress.builder()
+        .jobId(jobId)
+        .status(job.getStatus())
+        .done(job.getProgressDone())
+        .total(job.getProgressTotal())
+        .build();
+  }
+
+  /**
+   * Streams a job's log as server-sent events; see {@link JobLogBroadcaster}.
+   *
+   * @param jobId id of the job
+   * @param after sequence number the client has already seen, or -1 for the whole log
+   * @return the emitter the log will be sent to
+   */
+  public SseEmitter streamJobLogs(long jobId, long after) {
+    if (!jobsRepository.existsById(jobId)) {
+      throw new EntityNotFoundException(Job.class, jobId);
+    }
+    return jobLogBroadcaster.subscribe(jobId, after, seq -> tailJobLogs(jobId, seq));
+  }
+
+  private String join(String legacyLog, List<JobLogChunk> chunks) {
+    StringBuilder sb = new StringBuilder();
+    boolean first = legacyLog == null;
+    if (!first) {
+      sb.append(legacyLog);
+    }
+    for (JobLogChunk chunk : chunks) {
+      if (!first) {
+        sb.append("\n");
+      }
+      sb.append(jobLogCodec.decode(chunk));
+      first = false;
+    }
+    return sb.toString();
   }
 }
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.repositories.LeaderLeasesRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Elects one instance of the app to do a piece of work, using leases stored in the leader_leases
+ * table.
+ *
+ * <p>An instance becomes leader by taking a lease that is free or has expired, and stays leader by
+ * renewing it (calling {@link #isLeader} again) before it expires {@code app.jobs.leaderLeaseMs}
+ * later. If the leader stops, another instance takes over once the lease has expired. Leases held
+ * by this instance are given up when it shuts down.
+ */
+@Slf4j
+@Service
+public class LeaderElection {
+  @Autowired private LeaderLeasesRepository leaderLeasesRepository;
+
+  @Value("${app.jobs.leaderLeaseMs:30000}")
+  private long leaseMs;
+
+  private final String instanceId = UUID.randomUUID().toString();
+
+  private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Takes or renews a lease.
+   *
+   * @param name name of the lease, which must have a row in leader_leases
+   * @return true if this instance holds the lease for the next {@code app.jobs.leaderLeaseMs}
+   */
+  public boolean isLeader(String name) {
+    ZonedDateTime now = ZonedDateTime.now();
+    boolean leader =
+        leaderLeasesRepository.tryAcquire(
+                name, instanceId, now, now.plus(Duration.ofMillis(leaseMs)))
+            == 1;
+    if (leader && held.add(name)) {
+      log.info("Became leader for {}", name);
+    } else if (!leader && held.remove(name)) {
+      log.info("No longer leader for {}", name);
+    }
+    return leader;
+  }
+
+  @PreDestroy
+  public void releaseAll() {
+    for (String name : held) {
+      leaderLeasesRepository.release(name, instanceId);
+    }
+    held.clear();
+  }
+}
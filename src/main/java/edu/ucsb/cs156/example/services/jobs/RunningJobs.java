@@ -0,0 +1,90 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps track of the jobs running on this instance so that they can be cancelled, and stops each
+ * one with status "timed_out" once it has run longer than its timeout.
+ */
+@Slf4j
+@Service
+public class RunningJobs {
+  @Value("${app.jobs.timeoutMs:3600000}")
+  private long defaultTimeoutMs;
+
+  private final ConcurrentMap<Long, Running> running = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("job-timeouts").daemon().factory());
+
+  /**
+   * Called on the job's thread just before it runs.
+   *
+   * @param context the job's context
+   * @param timeoutMs the job's own timeout, or 0 to use {@code app.jobs.timeoutMs}; if both are 0
+   *     the job never times out
+   */
+  public void started(JobContext context, long timeoutMs) {
+    context.attach();
+    long timeout = timeoutMs > 0 ? timeoutMs : defaultTimeoutMs;
+    ScheduledFuture<?> timeoutTask =
+        timeout > 0
+            ? timer.schedule(() -> timeOut(context, timeout), timeout, TimeUnit.MILLISECONDS)
+            : null;
+    running.put(context.getJob().getId(), new Running(context, timeoutTask));
+  }
+
+  /**
+   * Called on the job's thread once it has returned.
+   *
+   * @param context the job's context
+   */
+  public void finished(JobContext context) {
+    Running entry = running.get(context.getJob().getId());
+    if (entry != null && entry.context == context) {
+      running.remove(context.getJob().getId(), entry);
+      if (entry.timeoutTask != null) {
+        entry.timeoutTask.cancel(false);
+      }
+    }
+    context.detach();
+  }
+
+  /**
+   * Asks a job running on this instance to stop with status "cancelled".
+   *
+   * @param jobId id of the job
+   * @return false if the job is not running on this instance
+   */
+  public boolean cancel(long jobId) {
+    Running entry = running.get(jobId);
+    if (entry == null) {
+      return false;
+    }
+    log.info("Job {}: cancelling", jobId);
+    entry.context.stop("cancelled");
+    return true;
+  }
+
+  private void timeOut(JobContext context, long timeoutMs) {
+    log.info("Job {}: timed out after {} ms", context.getJob().getId(), timeoutMs);
+    context.stop("timed_out");
+  }
+
+  @PreDestroy
+  void shutdown() {
+    timer.shutdownNow();
+  }
+
+  private record Running(JobContext context, ScheduledFuture<?> timeoutTask) {}
+}
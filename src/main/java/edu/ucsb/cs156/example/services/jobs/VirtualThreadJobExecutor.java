@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * An executor that runs each job on its own virtual thread, with at most {@code concurrency} jobs
+ * running at once and at most {@code queueCapacity} more waiting for a turn. Submissions beyond
+ * that are rejected with a {@link TaskRejectedException} rather than piling up.
+ */
+public class VirtualThreadJobExecutor implements AsyncTaskExecutor {
+  private final Semaphore running;
+  private final Semaphore admitted;
+  private final ThreadFactory threadFactory;
+
+  /**
+   * Creates the executor.
+   *
+   * @param concurrency maximum number of jobs running at once
+   * @param queueCapacity maximum number of jobs waiting to run
+   */
+  public VirtualThreadJobExecutor(int concurrency, int queueCapacity) {
+    this.running = new Semaphore(concurrency, true);
+    this.admitted = new Semaphore(concurrency + queueCapacity);
+    this.threadFactory = Thread.ofVirtual().name("job-", 0).factory();
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (!admitted.tryAcquire()) {
+      throw new TaskRejectedException("Job executor is at capacity; try again later");
+    }
+    threadFactory.newThread(() -> runWhenPermitted(task)).start();
+  }
+
+  private void runWhenPermitted(Runnable task) {
+    // nothing holds this thread before the task starts, so nothing can interrupt the wait
+    running.acquireUninterruptibly();
+    try {
+      task.run();
+    } finally {
+      running.release();
+      admitted.release();
+    }
+  }
+}
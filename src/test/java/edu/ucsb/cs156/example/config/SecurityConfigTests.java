@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.UserCache;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SecurityConfigTests {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private UserCache userCache;
+
+  @InjectMocks private SecurityConfig securityConfig;
+
+  private final User admin = User.builder().id(1L).email("admin@ucsb.edu").admin(true).build();
+
+  private final User user = User.builder().id(2L).email("user@ucsb.edu").admin(false).build();
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ((Set<String>) ReflectionTestUtils.getField(securityConfig, "adminEmails"))
+        .add("phtcon@ucsb.edu");
+  }
+
+  @Test
+  public void getAdmin_checks_the_admin_emails_first() {
+    assertTrue(securityConfig.getAdmin("phtcon@ucsb.edu"));
+
+    verify(userCache, never()).get(anyString());
+    verify(userRepository, never()).findByEmail(anyString());
+  }
+
+  @Test
+  public void getAdmin_then_reads_the_user_cache() {
+    when(userCache.get("admin@ucsb.edu")).thenReturn(Optional.of(admin));
+    when(userCache.get("user@ucsb.edu")).thenReturn(Optional.of(user));
+
+    assertTrue(securityConfig.getAdmin("admin@ucsb.edu"));
+    assertFalse(securityConfig.getAdmin("user@ucsb.edu"));
+
+    verify(userRepository, never()).findByEmail(anyString());
+  }
+
+  @Test
+  public void getAdmin_reads_the_database_on_a_cache_miss_and_caches_the_row() {
+    when(userCache.get("admin@ucsb.edu")).thenReturn(Optional.empty());
+    when(userRepository.findByEmail("admin@ucsb.edu")).thenReturn(Optional.of(admin));
+
+    assertTrue(securityConfig.getAdmin("admin@ucsb.edu"));
+
+    verify(userCache).put(admin);
+  }
+
+  @Test
+  public void getAdmin_is_false_for_unknown_users() {
+    when(userCache.get("nobody@ucsb.edu")).thenReturn(Optional.empty());
+    when(userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+
+    assertFalse(securityConfig.getAdmin("nobody@ucsb.edu"));
+
+    verify(userCache, never()).put(any());
+  }
+}
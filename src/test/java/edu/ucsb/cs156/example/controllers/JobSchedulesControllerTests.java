@@ -0,0 +1,241 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobSchedules;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = JobSchedulesController.class)
+@Import(TestConfig.class)
+public class JobSchedulesControllerTests extends ControllerTestCase {
+
+  @MockitoBean JobSchedulesRepository jobSchedulesRepository;
+
+  @MockitoBean JobSchedules jobSchedules;
+
+  @MockitoBean UserRepository userRepository;
+
+  private static final String DESCRIPTOR =
+      "{\"type\":\"edu.ucsb.cs156.example.jobs.TestJob\",\"params\":{\"fail\":false}}";
+
+  private JobSchedule schedule(long id, String name) {
+    return JobSchedule.builder()
+        .id(id)
+        .name(name)
+        .cron("0 0 2 * * *")
+        .descriptor(DESCRIPTOR)
+        .enabled(true)
+        .build();
+  }
+
+  // Authorization tests
+
+  @Test
+  public void logged_out_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_regular_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_regular_users_cannot_post() throws Exception {
+    mockMvc
+        .perform(post("/api/jobs/schedules/post?name=a&cron=x").content("{}").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  // Tests with mocks for database actions
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_get_all_schedules() throws Exception {
+    List<JobSchedule> schedules = List.of(schedule(1L, "nightly"), schedule(2L, "hourly"));
+    when(jobSchedulesRepository.findAll()).thenReturn(schedules);
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().isOk()).andReturn();
+
+    verify(jobSchedulesRepository, times(1)).findAll();
+    assertEquals(mapper.writeValueAsString(schedules), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_get_a_schedule_by_id() throws Exception {
+    JobSchedule schedule = schedule(7L, "nightly");
+    when(jobSchedulesRepository.findById(eq(7L))).thenReturn(Optional.of(schedule));
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/schedules?id=7")).andExpect(status().isOk()).andReturn();
+
+    assertEquals(mapper.writeValueAsString(schedule), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_gets_404_for_a_schedule_that_does_not_exist() throws Exception {
+    when(jobSchedulesRepository.findById(eq(7L))).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/schedules?id=7"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("EntityNotFoundException", json.get("type"));
+    assertEquals("JobSchedule with id 7 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_post_a_new_schedule() throws Exception {
+    JobSchedule expected = schedule(0L, "nightly");
+    when(jobSchedules.save(eq(expected))).thenReturn(expected);
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/schedules/post")
+                    .param("name", "nightly")
+                    .param("cron", "0 0 2 * * *")
+                    .content(DESCRIPTOR)
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    verify(jobSchedules, times(1)).save(expected);
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_posting_an_invalid_schedule_gets_400() throws Exception {
+    when(jobSchedules.save(any())).thenThrow(new IllegalArgumentException("bad cron"));
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/schedules/post")
+                    .param("name", "nightly")
+                    .param("cron", "every day")
+                    .param("enabled", "false")
+                    .content(DESCRIPTOR)
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("IllegalArgumentException", json.get("type"));
+    assertEquals("bad cron", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_delete_a_schedule() throws Exception {
+    JobSchedule schedule = schedule(15L, "nightly");
+    when(jobSchedulesRepository.findById(eq(15L))).thenReturn(Optional.of(schedule));
+
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/jobs/schedules?id=15").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    verify(jobSchedulesRepository, times(1)).delete(schedule);
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobSchedule with id 15 deleted", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_cannot_delete_a_schedule_that_does_not_exist() throws Exception {
+    when(jobSchedulesRepository.findById(eq(15L))).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/jobs/schedules?id=15").with(csrf()))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    verify(jobSchedulesRepository, never()).delete(any());
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobSchedule with id 15 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_edit_a_schedule() throws Exception {
+    JobSchedule original = schedule(67L, "nightly");
+    JobSchedule edited = schedule(67L, "weekly");
+    edited.setCron("0 0 3 * * MON");
+    edited.setDescriptor("{\"type\":\"edu.ucsb.cs156.example.jobs.TestJob\",\"params\":{}}");
+    edited.setEnabled(false);
+    String requestBody = mapper.writeValueAsString(edited);
+    when(jobSchedulesRepository.findById(eq(67L))).thenReturn(Optional.of(original));
+    when(jobSchedules.save(eq(edited))).thenReturn(edited);
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                put("/api/jobs/schedules?id=67")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(requestBody)
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    verify(jobSchedules, times(1)).save(edited);
+    assertEquals(requestBody, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_cannot_edit_a_schedule_that_does_not_exist() throws Exception {
+    when(jobSchedulesRepository.findById(eq(67L))).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                put("/api/jobs/schedules?id=67")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(mapper.writeValueAsString(schedule(67L, "weekly")))
+                    .with(csrf()))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    verify(jobSchedules, never()).save(any());
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobSchedule with id 67 not found", json.get("message"));
+  }
+}
@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobDescriptors;
+import edu.ucsb.cs156.example.services.jobs.JobHeartbeats;
+import edu.ucsb.cs156.example.services.jobs.JobLaunchKeys;
+import edu.ucsb.cs156.example.services.jobs.JobLogBackfill;
+import edu.ucsb.cs156.example.services.jobs.JobLogBroadcaster;
+import edu.ucsb.cs156.example.services.jobs.JobLogCodec;
+import edu.ucsb.cs156.example.services.jobs.JobLogWriter;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
+import edu.ucsb.cs156.example.services.jobs.JobProgressTracker;
+import edu.ucsb.cs156.example.services.jobs.JobScheduler;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.services.jobs.RunningJobs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = JobsController.class)
+@Import({
+  JobService.class,
+  JobDescriptors.class,
+  JobLogWriter.class,
+  JobLogBroadcaster.class,
+  JobLogBackfill.class,
+  JobLogCodec.class,
+  JobMetrics.class,
+  JobProgressTracker.class,
+  JobLaunchKeys.class,
+  JobHeartbeats.class,
+  RunningJobs.class,
+  JobScheduler.class,
+  SimpleMeterRegistry.class
+})
+@AutoConfigureDataJpa
+@TestPropertySource(
+    properties = {"app.jobs.executor.concurrency=1", "app.jobs.executor.queueCapacity=0"})
+public class JobsControllerRejectionTests extends ControllerTestCase {
+
+  @MockitoBean JobsRepository jobsRepository;
+
+  @MockitoBean JobLogChunksRepository jobLogChunksRepository;
+
+  @MockitoBean UserRepository userRepository;
+
+  @MockitoBean(name = "jobExecutor")
+  AsyncTaskExecutor jobExecutor;
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launch_returns_429_when_no_job_can_wait() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job jobRejected =
+        Job.builder().id(0L).createdBy(user).jobType("TestJob").status("rejected").build();
+
+    // the mocked executor never runs the first job, so it holds the only thread
+
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+        .andExpect(status().isOk());
+
+    // act
+
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+            .andExpect(status().isTooManyRequests())
+            .andReturn();
+
+    // assert
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("TaskRejectedException", json.get("type"));
+    assertEquals("Job executor is at capacity; try again later", json.get("message"));
+    verify(jobsRepository, times(2)).save(eq(jobRejected));
+  }
+}
@@ -11,56 +11,116 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.JobLogTail;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.models.JobTypeMetrics;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobDescriptors;
+import edu.ucsb.cs156.example.services.jobs.JobHeartbeats;
+import edu.ucsb.cs156.example.services.jobs.JobLaunchKeys;
+import edu.ucsb.cs156.example.services.jobs.JobLogBackfill;
+import edu.ucsb.cs156.example.services.jobs.JobLogBroadcaster;
+import edu.ucsb.cs156.example.services.jobs.JobLogCodec;
+import edu.ucsb.cs156.example.services.jobs.JobLogWriter;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
+import edu.ucsb.cs156.example.services.jobs.JobProgressTracker;
+import edu.ucsb.cs156.example.services.jobs.JobScheduler;
 import edu.ucsb.cs156.example.services.jobs.JobService;
-import java.util.ArrayList;
+import edu.ucsb.cs156.example.services.jobs.RunningJobs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MvcResult;
 
 @Slf4j
 @WebMvcTest(controllers = JobsController.class)
-@Import(JobService.class)
+@Import({
+  JobService.class,
+  JobDescriptors.class,
+  JobLogWriter.class,
+  JobLogBroadcaster.class,
+  JobLogBackfill.class,
+  JobLogCodec.class,
+  JobMetrics.class,
+  JobProgressTracker.class,
+  JobLaunchKeys.class,
+  JobHeartbeats.class,
+  RunningJobs.class,
+  JobScheduler.class,
+  SimpleMeterRegistry.class,
+  JobExecutorConfig.class
+})
 @AutoConfigureDataJpa
 public class JobsControllerTests extends ControllerTestCase {
 
   @MockitoBean JobsRepository jobsRepository;
 
+  @MockitoBean JobLogChunksRepository jobLogChunksRepository;
+
   @MockitoBean UserRepository userRepository;
 
   @Autowired JobService jobService;
 
+  @Autowired JobLogCodec jobLogCodec;
+
+  @Autowired JobProgressTracker jobProgressTracker;
+
+  @Autowired MeterRegistry meterRegistry;
+
   @Autowired ObjectMapper objectMapper;
 
+  @BeforeEach
+  public void setup() {
+    // jobs in these tests have no log yet, so their first line is seq 0
+    when(jobLogChunksRepository.findMaxSeq(anyLong())).thenReturn(null);
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_get_all_jobs() throws Exception {
 
     // arrange
 
-    Job job1 = Job.builder().log("this is job 1").build();
-    Job job2 = Job.builder().log("this is job 2").build();
+    JobSummary job1 =
+        JobSummary.builder()
+            .id(2L)
+            .status("complete")
+            .jobType("TestJob")
+            .createdById(1L)
+            .createdByEmail("admin@example.org")
+            .logLength(13L)
+            .build();
+    JobSummary job2 = JobSummary.builder().id(1L).status("error").logLength(0L).build();
 
-    ArrayList<Job> expectedJobs = new ArrayList<>();
-    expectedJobs.addAll(Arrays.asList(job1, job2));
+    List<JobSummary> expectedJobs = List.of(job1, job2);
 
-    when(jobsRepository.findAll()).thenReturn(expectedJobs);
+    when(jobsRepository.findSummariesBefore(Long.MAX_VALUE, PageRequest.of(0, 100)))
+        .thenReturn(expectedJobs);
 
     // act
     MvcResult response =
@@ -68,12 +128,47 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, atLeastOnce()).findAll();
+    verify(jobsRepository, never()).findAll();
     String expectedJson = mapper.writeValueAsString(expectedJobs);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_page_through_jobs_with_beforeId() throws Exception {
+
+    // arrange
+
+    List<JobSummary> expectedJobs =
+        List.of(JobSummary.builder().id(41L).status("complete").logLength(5L).build());
+
+    when(jobsRepository.findSummariesBefore(42L, PageRequest.of(0, 10))).thenReturn(expectedJobs);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/all?beforeId=42&size=10"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    assertEquals(
+        mapper.writeValueAsString(expectedJobs), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void page_size_is_clamped() throws Exception {
+    mockMvc.perform(get("/api/jobs/all?size=0")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/jobs/all?size=100000")).andExpect(status().isOk());
+
+    verify(jobsRepository).findSummariesBefore(Long.MAX_VALUE, PageRequest.of(0, 1));
+    verify(jobsRepository)
+        .findSummariesBefore(Long.MAX_VALUE, PageRequest.of(0, JobsController.MAX_PAGE_SIZE));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void api_getJobLogById__admin_logged_in__returns_job_by_id() throws Exception {
@@ -97,6 +192,34 @@ public class JobsControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void api_getJobLogById__admin_logged_in__includes_log_chunks() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(1L).status("completed").build();
+
+    when(jobsRepository.findById(eq(1L))).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(eq(1L)))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder().jobId(1L).seq(0L).payload("line 1").build(),
+                JobLogChunk.builder().jobId(1L).seq(1L).payload("line 2").build()));
+
+    // act
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs?id=1")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    Job expectedJob = Job.builder().id(1L).status("completed").log("line 1\nline 2").build();
+    String expectedJson = mapper.writeValueAsString(expectedJob);
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void api_getJobLogById__admin_logged_in__returns_not_found_for_missing_job()
@@ -123,7 +246,7 @@ public class JobsControllerTests extends ControllerTestCase {
   @Test
   public void admin_can_delete_all_jobs() throws Exception {
 
-    doNothing().when(jobsRepository).deleteAll();
+    when(jobsRepository.deleteAllInBulk()).thenReturn(2);
 
     // act
     MvcResult response =
@@ -134,7 +257,8 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).deleteAll();
+    verify(jobsRepository, times(1)).deleteAllInBulk();
+    verify(jobsRepository, never()).deleteAll();
     String expectedJson = mapper.writeValueAsString(Map.of("message", "All jobs deleted"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -232,20 +356,20 @@ public class JobsControllerTests extends ControllerTestCase {
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .jobType("TestJob")
             .createdAt(null)
             .updatedAt(null)
             .status("running")
-            .log("Hello World! from test job!")
             .build();
 
     Job jobCompleted =
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .jobType("TestJob")
             .createdAt(null)
             .updatedAt(null)
             .status("complete")
-            .log("Hello World! from test job!\nGoodbye from test job!")
             .build();
 
     when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobCompleted);
@@ -265,10 +389,74 @@ public class JobsControllerTests extends ControllerTestCase {
 
     await()
         .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
+        .untilAsserted(() -> verify(jobsRepository, times(1)).save(eq(jobStarted)));
+    await()
+        .atMost(1, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobLogChunksRepository, times(1))
+                    .save(jobLogCodec.encode(0L, 0L, "Hello World! from test job!")));
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(4)).save(eq(jobCompleted)));
+        .untilAsserted(() -> verify(jobsRepository).finishRunning(eq(jobCompleted), any()));
+    verify(jobsRepository, times(1)).save(any(Job.class));
+    verify(jobLogChunksRepository, times(1))
+        .save(jobLogCodec.encode(0L, 1L, "Goodbye from test job!"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void repeated_launch_with_the_same_idempotency_key_starts_one_job() throws Exception {
+
+    // arrange
+
+    double submittedBefore = meterRegistry.counter("jobs.submitted", "type", "TestJob").count();
+
+    // act
+
+    mockMvc
+        .perform(
+            post("/api/jobs/launch/testjob?fail=false&sleepMs=0")
+                .header("Idempotency-Key", "launch-1")
+                .with(csrf()))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(
+            post("/api/jobs/launch/testjob?fail=false&sleepMs=0&idempotencyKey=launch-1")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+
+    assertEquals(
+        submittedBefore + 1, meterRegistry.counter("jobs.submitted", "type", "TestJob").count());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_log_compression_job() throws Exception {
+
+    // act
+
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/compresslogs").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals("anonymous", jobReturned.getJobType());
+    await()
+        .atMost(1, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobLogChunksRepository)
+                    .save(jobLogCodec.encode(0L, 1L, "Done: 0 log chunks compressed")));
+    verify(jobLogChunksRepository)
+        .save(jobLogCodec.encode(0L, 0L, "Done: 0 job logs moved into chunks"));
   }
 
   @WithMockUser(roles = {"ADMIN"})
@@ -283,20 +471,20 @@ public class JobsControllerTests extends ControllerTestCase {
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .jobType("TestJob")
             .createdAt(null)
             .updatedAt(null)
             .status("running")
-            .log("Hello World! from test job!")
             .build();
 
     Job jobFailed =
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .jobType("TestJob")
             .createdAt(null)
             .updatedAt(null)
             .status("error")
-            .log("Hello World! from test job!\nFail!")
             .build();
 
     when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobFailed);
@@ -315,10 +503,273 @@ public class JobsControllerTests extends ControllerTestCase {
 
     await()
         .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
+        .untilAsserted(() -> verify(jobsRepository, times(1)).save(eq(jobStarted)));
 
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
+        .untilAsserted(() -> verify(jobsRepository).finishRunning(eq(jobFailed), any()));
+    verify(jobsRepository, times(1)).save(any(Job.class));
+    verify(jobLogChunksRepository, times(1)).save(jobLogCodec.encode(0L, 1L, "Fail!"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_the_progress_of_a_job_running_here() throws Exception {
+
+    // arrange
+
+    jobProgressTracker.report(12L, 10_000L, 200_000L);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/{id}/progress", 12L)).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson =
+        mapper.writeValueAsString(
+            JobProgress.builder()
+                .jobId(12L)
+                .status("running")
+                .done(10_000L)
+                .total(200_000L)
+                .build());
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    verify(jobsRepository, never()).findById(12L);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_the_saved_progress_of_a_job() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(9L).status("complete").progressDone(5L).progressTotal(5L).build();
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.of(job));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/{id}/progress", 9L)).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson =
+        mapper.writeValueAsString(
+            JobProgress.builder().jobId(9L).status("complete").done(5L).total(5L).build());
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void non_admin_cannot_get_job_progress() throws Exception {
+    mockMvc.perform(get("/api/jobs/{id}/progress", 9L)).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_tail_a_job_log_after_a_seq() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(9L).status("running").log("old line").build();
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(9L, 1L))
+        .thenReturn(List.of(JobLogChunk.builder().jobId(9L).seq(2L).payload("line 3").build()));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/tail?after=1", 9L))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    String expectedJson =
+        mapper.writeValueAsString(
+            JobLogTail.builder().jobId(9L).status("running").content("line 3").lastSeq(2L).build());
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_404_when_tailing_a_non_existing_job() throws Exception {
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/jobs/logs/{id}/tail", 9L)).andExpect(status().isNotFound());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void non_admin_cannot_tail_a_job_log() throws Exception {
+    mockMvc.perform(get("/api/jobs/logs/{id}/tail", 9L)).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_the_log_of_a_finished_job() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(9L).status("complete").build();
+    when(jobsRepository.existsById(eq(9L))).thenReturn(true);
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(9L, -1L))
+        .thenReturn(List.of(JobLogChunk.builder().jobId(9L).seq(0L).payload("done").build()));
+
+    // act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 9L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // assert
+
+    assertEquals(
+        "event:log\nid:0\ndata:done\n\nevent:end\ndata:complete\n\n",
+        result.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_404_when_streaming_a_non_existing_job() throws Exception {
+    when(jobsRepository.existsById(eq(9L))).thenReturn(false);
+
+    mockMvc.perform(get("/api/jobs/logs/{id}/stream", 9L)).andExpect(status().isNotFound());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_job_metrics() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.countQueuedByJobType())
+        .thenReturn(List.<Object[]>of(new Object[] {"QueuedJob", 3L}));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/metrics")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    List<JobTypeMetrics> metrics =
+        Arrays.asList(
+            mapper.readValue(response.getResponse().getContentAsString(), JobTypeMetrics[].class));
+    assertEquals(
+        JobTypeMetrics.builder().jobType("QueuedJob").queued(3L).build(),
+        metrics.stream().filter(m -> m.getJobType().equals("QueuedJob")).findFirst().get());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void non_admin_cannot_get_job_metrics() throws Exception {
+    mockMvc.perform(get("/api/jobs/metrics")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_a_queued_job() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.findById(eq(3L)))
+        .thenReturn(Optional.of(Job.builder().id(3L).status("queued").build()));
+    when(jobsRepository.cancelQueued(3L)).thenReturn(1);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=3").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 3 cancelled"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_404_when_cancelling_a_non_existing_job() throws Exception {
+    when(jobsRepository.findById(eq(3L))).thenReturn(Optional.empty());
+
+    mockMvc.perform(post("/api/jobs/cancel?id=3").with(csrf())).andExpect(status().isNotFound());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_a_running_test_job() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job jobStarted =
+        Job.builder().id(0L).createdBy(user).jobType("TestJob").status("running").build();
+    when(jobsRepository.findById(eq(0L))).thenReturn(Optional.of(jobStarted));
+
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=60000").with(csrf()))
+        .andExpect(status().isOk());
+    await()
+        .atMost(1, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobLogChunksRepository)
+                    .save(jobLogCodec.encode(0L, 0L, "Hello World! from test job!")));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=0").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(Map.of("message", "Cancelling job with id 0"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository)
+                    .finishRunning(
+                        eq(
+                            Job.builder()
+                                .id(0L)
+                                .createdBy(user)
+                                .jobType("TestJob")
+                                .status("cancelled")
+                                .build()),
+                        any()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_job_times_out() throws Exception {
+    User user = currentUserService.getUser();
+
+    mockMvc
+        .perform(
+            post("/api/jobs/launch/testjob?fail=false&sleepMs=60000&timeoutMs=100").with(csrf()))
+        .andExpect(status().isOk());
+
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository)
+                    .finishRunning(
+                        eq(
+                            Job.builder()
+                                .createdBy(user)
+                                .jobType("TestJob")
+                                .status("timed_out")
+                                .build()),
+                        any()));
+    verify(jobLogChunksRepository).save(jobLogCodec.encode(0L, 1L, "Timed out"));
   }
 }
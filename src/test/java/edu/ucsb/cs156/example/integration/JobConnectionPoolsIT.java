@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.integration;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class JobConnectionPoolsIT {
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired DataSource dataSource;
+
+  @Autowired
+  @Qualifier("webDataSource")
+  HikariDataSource webDataSource;
+
+  @Autowired
+  @Qualifier("jobDataSource")
+  HikariDataSource jobDataSource;
+
+  @Autowired JobService jobService;
+
+  @Autowired JobsRepository jobsRepository;
+
+  @Autowired MeterRegistry meterRegistry;
+
+  @MockitoBean UserRepository userRepo;
+
+  @Test
+  public void a_job_thread_takes_its_connection_from_the_jobs_pool() {
+    Job job = jobsRepository.save(Job.builder().status("running").build());
+    AtomicInteger jobsActive = new AtomicInteger(-1);
+
+    jobService.runJobAsync(
+        job,
+        c -> {
+          try (Connection connection = dataSource.getConnection()) {
+            // only job threads use the jobs pool, so this connection is its only active one
+            jobsActive.set(jobDataSource.getHikariPoolMXBean().getActiveConnections());
+          }
+        });
+
+    await().atMost(10, SECONDS).until(() -> jobsActive.get() != -1);
+    assertEquals(1, jobsActive.get());
+  }
+
+  @Test
+  public void a_thread_that_is_not_running_a_job_takes_its_connection_from_the_web_pool()
+      throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      assertTrue(webDataSource.getHikariPoolMXBean().getActiveConnections() >= 1);
+      assertEquals(0, jobDataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void a_request_thread_uses_the_web_pool() throws Exception {
+    double webBefore = usageCount("web");
+    double jobsBefore = usageCount("jobs");
+
+    mockMvc.perform(get("/api/articles/all")).andExpect(status().isOk());
+
+    assertTrue(usageCount("web") > webBefore);
+    assertEquals(jobsBefore, usageCount("jobs"));
+  }
+
+  private double usageCount(String pool) {
+    return meterRegistry.get("hikaricp.connections.usage").tag("pool", pool).timer().count();
+  }
+}
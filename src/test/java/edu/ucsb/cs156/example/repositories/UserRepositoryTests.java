@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.wiremock.WiremockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@DataJpaTest
+public class UserRepositoryTests {
+
+  @Autowired UserRepository userRepository;
+
+  @Autowired TestEntityManager entityManager;
+
+  @MockitoBean WiremockService mockWiremockService;
+
+  private User user(boolean admin) {
+    return User.builder()
+        .email("cgaucho@ucsb.edu")
+        .googleSub("sub")
+        .pictureUrl("https://example.org/cgaucho.jpg")
+        .fullName("Chris Gaucho")
+        .givenName("Chris")
+        .familyName("Gaucho")
+        .emailVerified(true)
+        .locale("")
+        .hostedDomain("ucsb.edu")
+        .admin(admin)
+        .build();
+  }
+
+  @Test
+  public void upsertH2_inserts_once_and_then_updates_the_same_row() {
+    User inserted = userRepository.upsertH2(user(false));
+
+    assertEquals("cgaucho@ucsb.edu", inserted.getEmail());
+    assertEquals("Chris Gaucho", inserted.getFullName());
+    assertFalse(inserted.getAdmin());
+
+    // each login upserts in a transaction of its own; forget the row as the next one would
+    entityManager.clear();
+    User updated = userRepository.upsertH2(user(true));
+
+    assertEquals(inserted.getId(), updated.getId());
+    assertTrue(updated.getAdmin());
+    assertEquals("Chris Gaucho", updated.getFullName());
+
+    entityManager.clear();
+    assertEquals(1, userRepository.count());
+    User row = userRepository.findByEmail("cgaucho@ucsb.edu").orElseThrow();
+    assertEquals(inserted.getId(), row.getId());
+    assertTrue(row.getAdmin());
+  }
+
+  @Test
+  public void upsertH2_never_takes_admin_away() {
+    User admin = userRepository.upsertH2(user(true));
+
+    entityManager.clear();
+    User again = userRepository.upsertH2(user(false));
+
+    assertEquals(admin.getId(), again.getId());
+    assertTrue(again.getAdmin());
+  }
+}
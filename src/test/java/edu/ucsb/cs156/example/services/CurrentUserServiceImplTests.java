@@ -0,0 +1,181 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AuthenticatedUser;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class CurrentUserServiceImplTests {
+
+  @Mock private LoginUserService loginUserService;
+
+  @Mock private UserCache userCache;
+
+  @Mock private GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @Spy private RequestMemo requestMemo = new RequestMemo();
+
+  @InjectMocks private CurrentUserServiceImpl currentUserService;
+
+  private final Map<String, Object> attributes =
+      Map.of("sub", "12345", "email", "cgaucho@ucsb.edu", "name", "Chris Gaucho");
+
+  private final User loggedIn =
+      User.builder().id(7L).email("cgaucho@ucsb.edu").fullName("Chris Gaucho").admin(true).build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @AfterEach
+  public void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+  }
+
+  private OAuth2User oauth2User() {
+    return new DefaultOAuth2User(List.of(), attributes, "sub");
+  }
+
+  private void logIn(OAuth2User principal) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new OAuth2AuthenticationToken(principal, List.of(), "google"));
+  }
+
+  @Test
+  public void the_user_is_worked_out_once_per_request() {
+    logIn(oauth2User());
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.of(loggedIn));
+
+    User first = currentUserService.getUser();
+    User second = currentUserService.getUser();
+
+    assertSame(first, second);
+    verify(userCache, times(1)).get(anyString());
+  }
+
+  @Test
+  public void the_user_comes_from_an_authenticated_user_principal_without_any_lookup() {
+    logIn(new AuthenticatedUser(oauth2User(), "sub", loggedIn));
+
+    User user = currentUserService.getUser();
+
+    assertEquals(7L, user.getId());
+    assertEquals("cgaucho@ucsb.edu", user.getEmail());
+    assertEquals("Chris Gaucho", user.getFullName());
+    assertTrue(user.getAdmin());
+    verify(userCache, never()).get(anyString());
+    verify(loginUserService, never()).findOrCreateUser(any());
+  }
+
+  @Test
+  public void a_user_demoted_since_login_keeps_the_principal_until_they_log_in_again() {
+    logIn(new AuthenticatedUser(oauth2User(), "sub", loggedIn));
+    User demoted = User.builder().id(7L).email("cgaucho@ucsb.edu").admin(false).build();
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.of(demoted));
+
+    assertTrue(currentUserService.getUser().getAdmin());
+    verify(userCache, never()).get(anyString());
+  }
+
+  @Test
+  public void a_user_deleted_since_login_is_not_stored_again_until_they_log_in_again() {
+    logIn(new AuthenticatedUser(oauth2User(), "sub", loggedIn));
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+
+    assertEquals(7L, currentUserService.getUser().getId());
+    verify(loginUserService, never()).findOrCreateUser(any());
+  }
+
+  @Test
+  public void other_principals_are_looked_up_in_the_user_cache_first() {
+    logIn(oauth2User());
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.of(loggedIn));
+
+    assertSame(loggedIn, currentUserService.getUser());
+    verify(loginUserService, never()).findOrCreateUser(any());
+  }
+
+  @Test
+  public void other_principals_missing_from_the_cache_are_upserted() {
+    OAuth2User principal = oauth2User();
+    logIn(principal);
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+    when(loginUserService.findOrCreateUser(principal)).thenReturn(loggedIn);
+
+    assertSame(loggedIn, currentUserService.getUser());
+    verify(userCache).get("cgaucho@ucsb.edu");
+    verify(loginUserService).findOrCreateUser(principal);
+  }
+
+  @Test
+  public void there_is_no_user_without_an_oauth2_login() {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken("user", "password"));
+
+    assertNull(currentUserService.getUser());
+    verify(userCache, never()).get(anyString());
+  }
+
+  @Test
+  public void outside_a_request_the_user_is_worked_out_on_every_call() {
+    RequestContextHolder.resetRequestAttributes();
+    logIn(oauth2User());
+    when(userCache.get("cgaucho@ucsb.edu")).thenReturn(Optional.of(loggedIn));
+
+    currentUserService.getUser();
+    currentUserService.getUser();
+
+    verify(userCache, times(2)).get("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  public void the_current_user_has_the_user_and_their_roles_and_is_worked_out_once() {
+    logIn(new AuthenticatedUser(oauth2User(), "sub", loggedIn));
+    List<GrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    doReturn(roles).when(grantedAuthoritiesService).getGrantedAuthorities();
+
+    CurrentUser first = currentUserService.getCurrentUser();
+    CurrentUser second = currentUserService.getCurrentUser();
+
+    assertSame(first, second);
+    assertEquals(7L, first.getUser().getId());
+    assertEquals(roles, first.getRoles());
+    assertEquals(roles, currentUserService.getRoles());
+    verify(grantedAuthoritiesService, times(2)).getGrantedAuthorities();
+  }
+}
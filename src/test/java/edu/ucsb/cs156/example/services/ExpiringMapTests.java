@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class ExpiringMapTests {
+
+  private final AtomicLong ttlMs = new AtomicLong(60_000L);
+
+  private final ExpiringMap<String, String> map = new ExpiringMap<>(ttlMs::get, () -> 2);
+
+  @Test
+  public void put_replaces_the_value() {
+    map.put("a", "1");
+    map.put("a", "2");
+
+    assertEquals("2", map.get("a"));
+    assertNull(map.get("b"));
+  }
+
+  @Test
+  public void putIfAbsent_keeps_the_existing_value() {
+    assertNull(map.putIfAbsent("a", "1"));
+    assertEquals("1", map.putIfAbsent("a", "2"));
+
+    assertEquals("1", map.get("a"));
+  }
+
+  @Test
+  public void oldest_entry_is_forgotten_beyond_maxEntries() {
+    map.put("a", "1");
+    map.put("b", "2");
+    map.putIfAbsent("c", "3");
+
+    assertNull(map.get("a"));
+    assertEquals("2", map.get("b"));
+    assertEquals("3", map.get("c"));
+  }
+
+  @Test
+  public void entries_expire_after_the_time_to_live() {
+    ttlMs.set(0L);
+    map.put("a", "1");
+    ttlMs.set(60_000L);
+    map.put("b", "2");
+
+    assertNull(map.get("a"));
+    assertEquals("2", map.get("b"));
+  }
+
+  @Test
+  public void remove_only_removes_the_given_value() {
+    String value = new String("1");
+    map.put("a", value);
+
+    map.remove("a", new String("1"));
+    assertEquals("1", map.get("a"));
+
+    map.remove("b", value);
+    map.remove("a", value);
+    assertNull(map.get("a"));
+  }
+}
@@ -5,31 +5,46 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.JobLogTail;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobLogCodec;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class JobLogsServiceTests {
 
   @Mock private JobsRepository jobRepository;
 
+  @Mock private JobLogChunksRepository jobLogChunksRepository;
+
+  private final JobLogCodec jobLogCodec = new JobLogCodec();
+
   @InjectMocks private JobService jobService;
 
   @BeforeEach
   public void setup() {
     MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogCodec, "compression", "deflate");
+    ReflectionTestUtils.setField(jobLogCodec, "compressMinBytes", 0);
+    ReflectionTestUtils.setField(jobService, "jobLogCodec", jobLogCodec);
   }
 
   @Test
   void test_getJobLogs_with_log() {
     // Arrange
     Long jobId = 1L;
-    Job job = Job.builder().build();
+    Job job = Job.builder().id(jobId).build();
     job.setLog("This is a job log");
     when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(jobId)).thenReturn(List.of());
 
     // Act
     String result = jobService.getJobLogs(jobId);
@@ -42,9 +57,10 @@ public class JobLogsServiceTests {
   void test_getJobLogs_with_null_log() {
     // Arrange
     Long jobId = 2L;
-    Job job = Job.builder().build();
+    Job job = Job.builder().id(jobId).build();
     job.setLog(null);
     when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(jobId)).thenReturn(List.of());
 
     // Act
     String result = jobService.getJobLogs(jobId);
@@ -62,4 +78,131 @@ public class JobLogsServiceTests {
     // Act & Assert
     assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
   }
+
+  @Test
+  void test_getJobLogs_joins_chunks_in_order() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(jobId))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder().jobId(jobId).seq(0L).payload("").build(),
+                JobLogChunk.builder().jobId(jobId).seq(1L).payload("line 2").build(),
+                JobLogChunk.builder().jobId(jobId).seq(2L).payload("line 3").build()));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("\nline 2\nline 3", result);
+  }
+
+  @Test
+  void test_getJobLogs_appends_chunks_after_legacy_log() {
+    // Arrange
+    Long jobId = 5L;
+    Job job = Job.builder().id(jobId).log("old line").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(jobId))
+        .thenReturn(
+            List.of(JobLogChunk.builder().jobId(jobId).seq(0L).payload("new line").build()));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("old line\nnew line", result);
+  }
+
+  @Test
+  void test_getJobLogs_decodes_compressed_and_uncompressed_chunks() {
+    // Arrange
+    Long jobId = 5L;
+    Job job = Job.builder().id(jobId).build();
+    String repetitive = "processing row\n".repeat(100);
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdOrderBySeqAsc(jobId))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder().jobId(jobId).seq(0L).payload("written before").build(),
+                jobLogCodec.encode(jobId, 100L, repetitive)));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("written before\n" + repetitive, result);
+  }
+
+  @Test
+  void test_tailJobLogs_from_the_start_includes_legacy_log() {
+    // Arrange
+    long jobId = 6L;
+    Job job = Job.builder().id(jobId).status("running").log("old line").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(jobId, -1L))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder().jobId(jobId).seq(0L).payload("line 1").build(),
+                JobLogChunk.builder().jobId(jobId).seq(2L).payload("line 2\nline 3").build()));
+
+    // Act
+    JobLogTail result = jobService.tailJobLogs(jobId, -1L);
+
+    // Assert
+    JobLogTail expected =
+        JobLogTail.builder()
+            .jobId(jobId)
+            .status("running")
+            .content("old line\nline 1\nline 2\nline 3")
+            .lastSeq(2L)
+            .build();
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void test_tailJobLogs_after_a_seq_returns_only_newer_chunks() {
+    // Arrange
+    long jobId = 6L;
+    Job job = Job.builder().id(jobId).status("complete").log("old line").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(jobId, 2L))
+        .thenReturn(List.of(JobLogChunk.builder().jobId(jobId).seq(3L).payload("line 4").build()));
+
+    // Act
+    JobLogTail result = jobService.tailJobLogs(jobId, 2L);
+
+    // Assert
+    JobLogTail expected =
+        JobLogTail.builder().jobId(jobId).status("complete").content("line 4").lastSeq(3L).build();
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void test_tailJobLogs_without_new_chunks_keeps_the_seq() {
+    // Arrange
+    long jobId = 6L;
+    Job job = Job.builder().id(jobId).status("running").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(jobId, 3L))
+        .thenReturn(List.of());
+
+    // Act
+    JobLogTail result = jobService.tailJobLogs(jobId, 3L);
+
+    // Assert
+    assertEquals("", result.getContent());
+    assertEquals(3L, result.getLastSeq());
+  }
+
+  @Test
+  void test_tailJobLogs_job_not_found() {
+    // Arrange
+    when(jobRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(EntityNotFoundException.class, () -> jobService.tailJobLogs(7L, -1L));
+  }
 }
@@ -0,0 +1,168 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AuthenticatedUser;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class LoginUserServiceTests {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private UserCache userCache;
+
+  @InjectMocks private LoginUserService loginUserService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(loginUserService, "adminEmails", Set.of("admin@ucsb.edu"));
+  }
+
+  private OAuth2User oAuthUser(String email) {
+    Map<String, Object> attributes =
+        Map.of(
+            "sub", "sub-" + email,
+            "email", email,
+            "picture", "https://example.org/pic.jpg",
+            "name", "Chris Gaucho",
+            "given_name", "Chris",
+            "family_name", "Gaucho",
+            "email_verified", true,
+            "locale", "en",
+            "hd", "ucsb.edu");
+    return new DefaultOAuth2User(List.of(new OAuth2UserAuthority(attributes)), attributes, "sub");
+  }
+
+  private User expected(String email, boolean admin) {
+    return User.builder()
+        .googleSub("sub-" + email)
+        .email(email)
+        .pictureUrl("https://example.org/pic.jpg")
+        .fullName("Chris Gaucho")
+        .givenName("Chris")
+        .familyName("Gaucho")
+        .emailVerified(true)
+        .locale("en")
+        .hostedDomain("ucsb.edu")
+        .admin(admin)
+        .build();
+  }
+
+  @Test
+  public void user_is_upserted_and_cached() {
+    User stored = User.builder().id(7L).email("cgaucho@ucsb.edu").build();
+    when(userRepository.upsertH2(expected("cgaucho@ucsb.edu", false))).thenReturn(stored);
+
+    assertSame(stored, loginUserService.findOrCreateUser(oAuthUser("cgaucho@ucsb.edu")));
+
+    verify(userCache).put(stored);
+    verify(userRepository, never()).upsertPostgres(any());
+  }
+
+  @Test
+  public void user_in_admin_emails_is_upserted_as_an_admin() {
+    User stored = User.builder().id(7L).email("admin@ucsb.edu").admin(true).build();
+    when(userRepository.upsertH2(expected("admin@ucsb.edu", true))).thenReturn(stored);
+
+    assertSame(stored, loginUserService.findOrCreateUser(oAuthUser("admin@ucsb.edu")));
+  }
+
+  @Test
+  public void user_is_upserted_with_on_conflict_on_postgres() {
+    ReflectionTestUtils.setField(loginUserService, "postgresUpsert", true);
+    User stored = User.builder().id(7L).email("cgaucho@ucsb.edu").build();
+    when(userRepository.upsertPostgres(expected("cgaucho@ucsb.edu", false))).thenReturn(stored);
+
+    assertSame(stored, loginUserService.findOrCreateUser(oAuthUser("cgaucho@ucsb.edu")));
+
+    verify(userRepository, never()).upsertH2(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void loadUser_returns_a_principal_carrying_the_user() {
+    OAuth2UserService<OAuth2UserRequest, OAuth2User> delegate = mock(OAuth2UserService.class);
+    ReflectionTestUtils.setField(loginUserService, "delegate", delegate);
+    OAuth2User oAuthUser = oAuthUser("admin@ucsb.edu");
+    ClientRegistration registration =
+        ClientRegistration.withRegistrationId("google")
+            .clientId("client")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("http://localhost:8080/login/oauth2/code/google")
+            .authorizationUri("https://example.org/authorize")
+            .tokenUri("https://example.org/token")
+            .userInfoUri("https://example.org/userinfo")
+            .userNameAttributeName("sub")
+            .build();
+    OAuth2AccessToken token =
+        new OAuth2AccessToken(
+            OAuth2AccessToken.TokenType.BEARER,
+            "token",
+            Instant.now(),
+            Instant.now().plusSeconds(60));
+    OAuth2UserRequest request = new OAuth2UserRequest(registration, token);
+    when(delegate.loadUser(request)).thenReturn(oAuthUser);
+    when(userRepository.upsertH2(any()))
+        .thenReturn(User.builder().id(7L).email("admin@ucsb.edu").admin(true).build());
+
+    AuthenticatedUser principal = (AuthenticatedUser) loginUserService.loadUser(request);
+
+    assertEquals(7L, principal.getUserId());
+    assertEquals("admin@ucsb.edu", principal.getEmail());
+    assertTrue(principal.getAdmin());
+    assertEquals("sub-admin@ucsb.edu", principal.getName());
+    assertEquals(oAuthUser.getAuthorities(), principal.getAuthorities());
+
+    User user = principal.toUser();
+    assertEquals(7L, user.getId());
+    assertEquals("admin@ucsb.edu", user.getEmail());
+    assertTrue(user.getAdmin());
+    assertEquals("sub-admin@ucsb.edu", user.getGoogleSub());
+    assertEquals("https://example.org/pic.jpg", user.getPictureUrl());
+    assertEquals("Chris Gaucho", user.getFullName());
+    assertEquals("Chris", user.getGivenName());
+    assertEquals("Gaucho", user.getFamilyName());
+    assertTrue(user.getEmailVerified());
+    assertEquals("en", user.getLocale());
+    assertEquals("ucsb.edu", user.getHostedDomain());
+  }
+
+  @Test
+  public void principal_of_a_non_admin_builds_a_non_admin_user() {
+    User stored = User.builder().id(8L).email("cgaucho@ucsb.edu").build();
+
+    AuthenticatedUser principal =
+        new AuthenticatedUser(oAuthUser("cgaucho@ucsb.edu"), "email", stored);
+
+    assertFalse(principal.toUser().getAdmin());
+    assertEquals("cgaucho@ucsb.edu", principal.getName());
+  }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RequestMemoTests {
+
+  private RequestMemo requestMemo;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private final AtomicInteger computed = new AtomicInteger();
+
+  @BeforeEach
+  public void setup() {
+    requestMemo = new RequestMemo();
+    meterRegistry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(requestMemo, "meterRegistry", meterRegistry);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken("user", "password"));
+  }
+
+  @AfterEach
+  public void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+    SecurityContextHolder.clearContext();
+  }
+
+  private String compute() {
+    return "value " + computed.incrementAndGet();
+  }
+
+  private double count(String name, String result) {
+    return meterRegistry.counter("request.memo", "name", name, "result", result).count();
+  }
+
+  @Test
+  public void value_is_computed_once_per_request() {
+    assertEquals("value 1", requestMemo.get("user", this::compute));
+    assertEquals("value 1", requestMemo.get("user", this::compute));
+    assertEquals("value 2", requestMemo.get("roles", this::compute));
+
+    assertEquals(1.0, count("user", "miss"));
+    assertEquals(1.0, count("user", "hit"));
+    assertEquals(1.0, count("roles", "miss"));
+  }
+
+  @Test
+  public void null_value_is_remembered() {
+    assertNull(requestMemo.get("user", () -> null));
+    assertNull(requestMemo.get("user", this::compute));
+
+    assertEquals(0, computed.get());
+  }
+
+  @Test
+  public void value_is_computed_again_in_a_new_request() {
+    requestMemo.get("user", this::compute);
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+
+    assertEquals("value 2", requestMemo.get("user", this::compute));
+  }
+
+  @Test
+  public void value_is_computed_again_once_the_authentication_changes() {
+    requestMemo.get("user", this::compute);
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken("admin", "password"));
+
+    assertEquals("value 2", requestMemo.get("user", this::compute));
+  }
+
+  @Test
+  public void value_is_computed_every_time_outside_a_request() {
+    RequestContextHolder.resetRequestAttributes();
+
+    assertEquals("value 1", requestMemo.get("user", this::compute));
+    assertEquals("value 2", requestMemo.get("user", this::compute));
+    assertEquals(0.0, count("user", "miss"));
+  }
+
+  @Test
+  public void nothing_is_counted_without_a_meter_registry() {
+    ReflectionTestUtils.setField(requestMemo, "meterRegistry", null);
+
+    assertEquals("value 1", requestMemo.get("user", this::compute));
+    assertEquals("value 1", requestMemo.get("user", this::compute));
+  }
+}
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class UserCacheTests {
+
+  private UserCache userCache;
+
+  @BeforeEach
+  public void setup() {
+    userCache = new UserCache();
+    ReflectionTestUtils.setField(userCache, "ttlMs", 60_000L);
+    ReflectionTestUtils.setField(userCache, "maxEntries", 2);
+  }
+
+  private User user(long id, String email) {
+    return User.builder().id(id).email(email).build();
+  }
+
+  @Test
+  public void cached_user_is_returned() {
+    User user = user(1L, "a@ucsb.edu");
+    userCache.put(user);
+
+    assertSame(user, userCache.get("a@ucsb.edu").get());
+    assertEquals(Optional.empty(), userCache.get("b@ucsb.edu"));
+  }
+
+  @Test
+  public void put_replaces_the_cached_copy() {
+    User changed = user(1L, "a@ucsb.edu");
+    changed.setAdmin(true);
+    userCache.put(user(1L, "a@ucsb.edu"));
+    userCache.put(changed);
+
+    assertSame(changed, userCache.get("a@ucsb.edu").get());
+  }
+
+  @Test
+  public void oldest_user_is_forgotten_beyond_maxEntries() {
+    userCache.put(user(1L, "a@ucsb.edu"));
+    userCache.put(user(2L, "b@ucsb.edu"));
+    userCache.put(user(3L, "c@ucsb.edu"));
+
+    assertEquals(Optional.empty(), userCache.get("a@ucsb.edu"));
+    assertEquals(2L, userCache.get("b@ucsb.edu").get().getId());
+    assertEquals(3L, userCache.get("c@ucsb.edu").get().getId());
+  }
+
+  @Test
+  public void users_expire_after_ttlMs() throws Exception {
+    ReflectionTestUtils.setField(userCache, "ttlMs", 100L);
+    userCache.put(user(1L, "a@ucsb.edu"));
+    Thread.sleep(200);
+    userCache.put(user(2L, "b@ucsb.edu"));
+
+    assertEquals(Optional.empty(), userCache.get("a@ucsb.edu"));
+    assertEquals(2L, userCache.get("b@ucsb.edu").get().getId());
+  }
+}
@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+public class ChunkedStepTests {
+
+  private JobLogWriter jobLogWriter;
+  private JobProgressTracker tracker;
+  private JobsRepository jobsRepository;
+
+  /** The rows of the "table": 1 to 7. */
+  private final List<Long> table = LongStream.rangeClosed(1, 7).boxed().toList();
+
+  /** The rows each read returned. */
+  private final List<List<Long>> reads = new ArrayList<>();
+
+  /** The chunks written. */
+  private final List<List<String>> writes = new ArrayList<>();
+
+  private int transactions;
+
+  @BeforeEach
+  public void setup() {
+    jobLogWriter = mock(JobLogWriter.class);
+    tracker = mock(JobProgressTracker.class);
+    jobsRepository = mock(JobsRepository.class);
+  }
+
+  private JobContext context(String checkpoint) {
+    Job job = Job.builder().id(17L).checkpoint(checkpoint).build();
+    return new JobContext(jobLogWriter, tracker, jobsRepository, job, 0L);
+  }
+
+  private ChunkedStep.ChunkedStepBuilder<Long, Long, String> step() {
+    return ChunkedStep.<Long, Long, String>builder()
+        .transactions(
+            new TransactionOperations() {
+              @Override
+              public <X> X execute(TransactionCallback<X> action) {
+                transactions++;
+                return action.doInTransaction(null);
+              }
+            })
+        .reader(
+            (after, limit) -> {
+              List<Long> rows = table.stream().filter(r -> r > after).limit(limit).toList();
+              reads.add(rows);
+              return rows;
+            })
+        .key(row -> row)
+        .startAfter(0L)
+        .parseKey(Long::valueOf)
+        .processor(row -> row % 2 == 0 ? null : "row " + row)
+        .writer(writes::add)
+        .chunkSize(3);
+  }
+
+  @Test
+  public void every_row_is_processed_one_chunk_per_transaction() {
+    JobContext ctx = context(null);
+
+    assertEquals(7L, step().total(() -> 7L).build().run(ctx));
+
+    assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L), List.of()), reads);
+    assertEquals(List.of(List.of("row 1", "row 3"), List.of("row 5"), List.of("row 7")), writes);
+    assertEquals(4, transactions);
+    verify(jobsRepository).saveCheckpoint(17L, "3");
+    verify(jobsRepository).saveCheckpoint(17L, "6");
+    verify(jobsRepository).saveCheckpoint(17L, "7");
+    verify(tracker).report(17L, 3L, 7L);
+    verify(tracker).report(17L, 6L, 7L);
+    verify(tracker).report(17L, 7L, 7L);
+    verify(jobLogWriter).append(17L, 0L, "Read 7 rows, wrote 4");
+    assertEquals("7", ctx.getCheckpoint());
+  }
+
+  @Test
+  public void a_chunk_with_nothing_to_write_is_not_written() {
+    JobContext ctx = context(null);
+
+    step().processor(row -> null).build().run(ctx);
+
+    assertEquals(List.of(), writes);
+    verify(jobsRepository).saveCheckpoint(17L, "7");
+    verify(tracker, never()).report(anyLong(), anyLong(), anyLong());
+    verify(jobLogWriter).append(17L, 0L, "Read 7 rows, wrote 0");
+  }
+
+  @Test
+  public void a_job_resumes_after_its_checkpoint() {
+    JobContext ctx = context("5");
+
+    assertEquals(2L, step().build().run(ctx));
+
+    assertEquals(List.of(List.of(6L, 7L), List.of()), reads);
+    assertEquals(List.of(List.of("row 7")), writes);
+    verify(jobLogWriter).append(17L, 0L, "Resuming after key 5");
+    verify(jobLogWriter).append(17L, 1L, "Read 2 rows, wrote 1");
+  }
+
+  @Test
+  public void a_stopped_job_stops_after_the_current_chunk() {
+    JobContext ctx = context(null);
+    ctx.stop("cancelled");
+
+    assertThrows(CancellationException.class, () -> step().build().run(ctx));
+
+    assertEquals(1, reads.size());
+    verify(jobsRepository).saveCheckpoint(17L, "3");
+  }
+
+  @Test
+  public void steps_run_without_a_transaction_by_default() {
+    ChunkedStep<Long, Long, String> step =
+        ChunkedStep.<Long, Long, String>builder()
+            .reader((after, limit) -> List.of())
+            .startAfter(0L)
+            .build();
+
+    assertEquals(0L, step.run(context(null)));
+    assertEquals(100, step.getChunkSize());
+  }
+}
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class JobConnectionsTests {
+
+  @Test
+  public void enter_and_exit_mark_the_current_thread() {
+    assertFalse(JobConnections.inJob());
+
+    JobConnections.enter();
+    assertTrue(JobConnections.inJob());
+
+    JobConnections.exit();
+    assertFalse(JobConnections.inJob());
+  }
+
+  @Test
+  public void wrapped_task_runs_marked_on_another_thread() throws Exception {
+    AtomicBoolean inJob = new AtomicBoolean();
+    Thread thread = new Thread(JobConnections.inJob(() -> inJob.set(JobConnections.inJob())));
+
+    thread.start();
+    thread.join();
+
+    assertTrue(inJob.get());
+    assertFalse(JobConnections.inJob());
+  }
+
+  @Test
+  public void wrapped_task_is_unmarked_even_when_it_fails() {
+    Runnable task =
+        JobConnections.inJob(
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+
+    assertThrows(IllegalStateException.class, task::run);
+    assertFalse(JobConnections.inJob());
+  }
+}
@@ -1,9 +1,27 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 public class JobContextTests {
   @Test
@@ -18,6 +36,257 @@ public class JobContextTests {
     ctx.log("This is a log message");
 
     // assert
-    assertEquals("This is a log message", job1.getLog());
+    assertNull(job1.getLog());
+  }
+
+  @Test
+  public void log_appends_lines_in_sequence() throws Exception {
+
+    // arrange
+
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    Job job1 = Job.builder().id(17L).build();
+    JobContext ctx = new JobContext(jobLogWriter, job1);
+
+    // act
+    ctx.log("first");
+    ctx.log("second");
+
+    // assert
+    InOrder inOrder = inOrder(jobLogWriter);
+    inOrder.verify(jobLogWriter).append(17L, 0L, "first");
+    inOrder.verify(jobLogWriter).append(17L, 1L, "second");
+    assertNull(job1.getLog());
+  }
+
+  @Test
+  public void log_can_start_at_a_later_sequence_number() throws Exception {
+
+    // arrange
+
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    Job job1 = Job.builder().id(17L).build();
+    JobContext ctx = new JobContext(jobLogWriter, job1, 5L);
+
+    // act
+    ctx.log("resumed");
+
+    // assert
+    verify(jobLogWriter).append(17L, 5L, "resumed");
+    assertEquals(job1, ctx.getJob());
+  }
+
+  @Test
+  public void checkpoint_throws_once_the_job_is_stopped() throws Exception {
+
+    // arrange
+
+    JobContext ctx = new JobContext(null, Job.builder().id(17L).build());
+    ctx.checkpoint();
+    assertFalse(ctx.isCancelled());
+
+    // act
+    ctx.stop("timed_out");
+    ctx.stop("cancelled");
+
+    // assert
+    assertTrue(ctx.isCancelled());
+    assertEquals("timed_out", ctx.getStopStatus());
+    CancellationException e = assertThrows(CancellationException.class, ctx::checkpoint);
+    assertEquals("Job timed_out", e.getMessage());
+  }
+
+  @Test
+  public void stop_interrupts_the_attached_thread_only() throws Exception {
+
+    // arrange
+
+    JobContext ctx = new JobContext(null, Job.builder().id(17L).build());
+
+    // act & assert
+    ctx.stop("cancelled");
+    assertFalse(Thread.currentThread().isInterrupted());
+
+    ctx.attach();
+    ctx.stop("cancelled");
+    assertTrue(Thread.currentThread().isInterrupted());
+
+    ctx.detach();
+    assertFalse(Thread.currentThread().isInterrupted());
+    ctx.stop("cancelled");
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void progress_is_reported_to_the_tracker() throws Exception {
+
+    // arrange
+
+    JobProgressTracker tracker = mock(JobProgressTracker.class);
+    JobContext ctx = new JobContext(null, tracker, Job.builder().id(17L).build(), 0L);
+
+    // act
+    ctx.progress(10_000L, 200_000L);
+
+    // assert
+    verify(tracker).report(17L, 10_000L, 200_000L);
+  }
+
+  @Test
+  public void progress_without_a_tracker_does_nothing() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().id(17L).build());
+
+    ctx.progress(1L, 2L);
+  }
+
+  @Test
+  public void checkpoint_with_state_saves_it_for_a_later_run() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job = Job.builder().id(17L).checkpoint("page 2").build();
+    JobContext ctx = new JobContext(null, null, jobsRepository, job, 0L);
+    assertEquals("page 2", ctx.getCheckpoint());
+
+    // act
+    ctx.checkpoint("page 3");
+
+    // assert
+    assertEquals("page 3", ctx.getCheckpoint());
+    assertEquals("page 3", job.getCheckpoint());
+    verify(jobsRepository).saveCheckpoint(17L, "page 3");
+  }
+
+  @Test
+  public void checkpoint_with_state_throws_once_the_job_is_stopped() throws Exception {
+
+    // arrange
+
+    JobContext ctx = new JobContext(null, Job.builder().id(17L).build());
+    ctx.stop("cancelled");
+
+    // act & assert
+    assertThrows(CancellationException.class, () -> ctx.checkpoint("page 3"));
+    assertEquals("page 3", ctx.getCheckpoint());
+  }
+
+  @Test
+  public void parallel_processes_every_item_with_bounded_parallelism() throws Exception {
+
+    // arrange
+
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    JobProgressTracker tracker = mock(JobProgressTracker.class);
+    JobContext ctx = new JobContext(jobLogWriter, tracker, Job.builder().id(17L).build(), 0L);
+    List<Integer> items = IntStream.range(0, 20).boxed().toList();
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Set<Boolean> inJob = ConcurrentHashMap.newKeySet();
+
+    // act
+    ctx.parallel(
+        items,
+        item -> {
+          inJob.add(JobConnections.inJob());
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(10);
+          running.decrementAndGet();
+          processed.add(item);
+        },
+        4);
+
+    // assert
+    assertEquals(Set.copyOf(items), processed);
+    assertTrue(maxRunning.get() <= 4);
+    assertTrue(maxRunning.get() > 1);
+    assertEquals(Set.of(true), inJob);
+    verify(tracker).report(17L, 20L, 20L);
+    verify(jobLogWriter).append(17L, 0L, "Processed 20 items, 0 failed");
+  }
+
+  @Test
+  public void parallel_reports_every_failure_after_processing_the_rest() throws Exception {
+
+    // arrange
+
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    JobContext ctx = new JobContext(jobLogWriter, Job.builder().id(17L).build());
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+    // act
+    RuntimeException e =
+        assertThrows(
+            RuntimeException.class,
+            () ->
+                ctx.parallel(
+                    List.of(0, 1, 2, 3, 4),
+                    item -> {
+                      if (item % 2 == 1) {
+                        throw new IllegalStateException("bad item " + item);
+                      }
+                      processed.add(item);
+                    },
+                    2));
+
+    // assert
+    assertEquals(Set.of(0, 2, 4), processed);
+    assertEquals("2 of 5 items failed", e.getMessage());
+    assertTrue(e.getCause().getMessage().startsWith("bad item "));
+    assertEquals(1, e.getSuppressed().length);
+    verify(jobLogWriter)
+        .append(
+            eq(17L), anyLong(), eq("Item 1 failed: java.lang.IllegalStateException: bad item 1"));
+    verify(jobLogWriter)
+        .append(
+            eq(17L), anyLong(), eq("Item 3 failed: java.lang.IllegalStateException: bad item 3"));
+    verify(jobLogWriter).append(17L, 2L, "Processed 5 items, 2 failed");
+  }
+
+  @Test
+  public void parallel_stops_starting_items_once_the_job_is_stopped() throws Exception {
+
+    // arrange
+
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    JobContext ctx = new JobContext(jobLogWriter, Job.builder().id(17L).build());
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+    // act
+    assertThrows(
+        CancellationException.class,
+        () ->
+            ctx.parallel(
+                List.of(0, 1, 2),
+                item -> {
+                  processed.add(item);
+                  ctx.stop("cancelled");
+                },
+                1));
+
+    // assert
+    assertEquals(Set.of(0), processed);
+    verify(jobLogWriter, never()).append(eq(17L), anyLong(), eq("Processed 1 items, 0 failed"));
+  }
+
+  @Test
+  public void parallel_of_no_items_does_nothing() throws Exception {
+    JobLogWriter jobLogWriter = mock(JobLogWriter.class);
+    JobContext ctx = new JobContext(jobLogWriter, Job.builder().id(17L).build());
+
+    ctx.parallel(List.of(), item -> {}, 4);
+
+    verify(jobLogWriter).append(17L, 0L, "Processed 0 items, 0 failed");
+  }
+
+  @Test
+  public void parallel_needs_at_least_one_thread() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().id(17L).build());
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> ctx.parallel(List.of(1), item -> {}, 0));
+
+    assertEquals("parallelism must be at least 1", e.getMessage());
   }
 }
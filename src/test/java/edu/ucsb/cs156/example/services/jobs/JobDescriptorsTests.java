@@ -0,0 +1,137 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+public class JobDescriptorsTests {
+
+  @Spy private ObjectMapper mapper = new ObjectMapper();
+
+  @InjectMocks private JobDescriptors jobDescriptors;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  static class StaticJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext c) {}
+  }
+
+  class InnerJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext c) {}
+  }
+
+  static boolean notAJobInitialized = false;
+
+  static class NotAJob {
+    static {
+      notAJobInitialized = true;
+    }
+  }
+
+  @Test
+  public void test_job_round_trips_through_a_descriptor() {
+    TestJob testJob =
+        TestJob.builder()
+            .fail(true)
+            .sleepMs(250)
+            .timeoutMs(5000L)
+            .priority(JobPriority.BULK)
+            .build();
+
+    String descriptor = jobDescriptors.write(testJob);
+
+    assertEquals(
+        "{\"type\":\"edu.ucsb.cs156.example.jobs.TestJob\",\"params\":{\"fail\":true,\"sleepMs\":250,\"timeoutMs\":5000,\"priority\":\"BULK\"}}",
+        descriptor);
+    TestJob read = assertInstanceOf(TestJob.class, jobDescriptors.read(descriptor));
+    assertTrue(read.getFail());
+    assertEquals(250, read.getSleepMs());
+    assertEquals(5000L, read.timeoutMs());
+    assertEquals(JobPriority.BULK, read.priority());
+  }
+
+  @Test
+  public void only_named_top_level_or_static_classes_are_describable() {
+    class LocalJob implements JobContextConsumer {
+      @Override
+      public void accept(JobContext c) {}
+    }
+    JobContextConsumer anonymousJob =
+        new JobContextConsumer() {
+          @Override
+          public void accept(JobContext c) {}
+        };
+    JobContextConsumer lambdaJob = c -> {};
+
+    assertTrue(jobDescriptors.isDescribable(TestJob.builder().build()));
+    assertTrue(jobDescriptors.isDescribable(new StaticJob()));
+    assertFalse(jobDescriptors.isDescribable(new InnerJob()));
+    assertFalse(jobDescriptors.isDescribable(new LocalJob()));
+    assertFalse(jobDescriptors.isDescribable(anonymousJob));
+    assertFalse(jobDescriptors.isDescribable(lambdaJob));
+  }
+
+  @Test
+  public void typeOf_returns_simple_name_or_anonymous() {
+    JobContextConsumer anonymousJob =
+        new JobContextConsumer() {
+          @Override
+          public void accept(JobContext c) {}
+        };
+    JobContextConsumer lambdaJob = c -> {};
+
+    assertEquals("TestJob", JobDescriptors.typeOf(TestJob.builder().build()));
+    assertEquals("StaticJob", JobDescriptors.typeOf(new StaticJob()));
+    assertEquals("anonymous", JobDescriptors.typeOf(anonymousJob));
+    assertEquals("anonymous", JobDescriptors.typeOf(lambdaJob));
+  }
+
+  @Test
+  public void read_rejects_classes_that_are_not_jobs() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> jobDescriptors.read("{\"type\":\"java.lang.String\",\"params\":\"x\"}"));
+    assertEquals("java.lang.String is not a job", e.getMessage());
+  }
+
+  @Test
+  public void read_does_not_initialize_classes_that_are_not_jobs() {
+    String name = NotAJob.class.getName();
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> jobDescriptors.read("{\"type\":\"%s\",\"params\":{}}".formatted(name)));
+    assertEquals(name + " is not a job", e.getMessage());
+    assertFalse(notAJobInitialized);
+  }
+
+  @Test
+  public void read_rejects_unknown_classes() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> jobDescriptors.read("{\"type\":\"edu.ucsb.NoSuchJob\",\"params\":{}}"));
+    assertEquals("Invalid job descriptor: edu.ucsb.NoSuchJob", e.getMessage());
+  }
+
+  @Test
+  public void read_rejects_malformed_json() {
+    assertThrows(IllegalArgumentException.class, () -> jobDescriptors.read("{not json"));
+  }
+}
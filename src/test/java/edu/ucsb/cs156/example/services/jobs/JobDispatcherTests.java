@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobDispatcherTests {
+
+  @Mock private JobQueue jobQueue;
+
+  @Mock private JobService jobService;
+
+  @InjectMocks private JobDispatcher jobDispatcher;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobDispatcher, "claimBatchSize", 4);
+    ReflectionTestUtils.setField(jobDispatcher, "workerEnabled", true);
+  }
+
+  @Test
+  public void poll_does_nothing_when_the_queue_is_disabled() {
+    ReflectionTestUtils.setField(jobDispatcher, "enabled", false);
+
+    jobDispatcher.poll();
+
+    verify(jobQueue, never()).claim(anyInt());
+  }
+
+  @Test
+  public void poll_does_nothing_on_instances_that_are_not_workers() {
+    ReflectionTestUtils.setField(jobDispatcher, "enabled", true);
+    ReflectionTestUtils.setField(jobDispatcher, "workerEnabled", false);
+
+    jobDispatcher.poll();
+
+    verify(jobQueue, never()).claim(anyInt());
+  }
+
+  @Test
+  public void poll_runs_every_claimed_job() {
+    ReflectionTestUtils.setField(jobDispatcher, "enabled", true);
+    Job job1 = Job.builder().id(1L).build();
+    Job job2 = Job.builder().id(2L).build();
+    when(jobService.freeSlots()).thenReturn(10);
+    when(jobQueue.claim(4)).thenReturn(List.of(job1, job2));
+
+    jobDispatcher.poll();
+
+    verify(jobService).runClaimedJob(job1);
+    verify(jobService).runClaimedJob(job2);
+  }
+
+  @Test
+  public void poll_claims_no_more_jobs_than_there_are_free_slots() {
+    ReflectionTestUtils.setField(jobDispatcher, "enabled", true);
+    when(jobService.freeSlots()).thenReturn(2);
+
+    jobDispatcher.poll();
+
+    verify(jobQueue).claim(2);
+  }
+
+  @Test
+  public void poll_does_not_claim_when_there_are_no_free_slots() {
+    ReflectionTestUtils.setField(jobDispatcher, "enabled", true);
+    when(jobService.freeSlots()).thenReturn(0);
+
+    jobDispatcher.poll();
+
+    verify(jobQueue, never()).claim(anyInt());
+  }
+}
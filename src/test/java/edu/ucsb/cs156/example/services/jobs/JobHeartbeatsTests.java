@@ -0,0 +1,152 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobHeartbeatsTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogWriter jobLogWriter;
+
+  @Mock private JobLogBroadcaster jobLogBroadcaster;
+
+  @InjectMocks private JobHeartbeats jobHeartbeats;
+
+  private final Job queuedJob = Job.builder().id(5L).status("running").descriptor("d").build();
+
+  private final Job anonymousJob = Job.builder().id(6L).status("running").build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobHeartbeats, "queueEnabled", true);
+    ReflectionTestUtils.setField(jobHeartbeats, "orphanAfterMs", 60000L);
+    when(jobLogWriter.nextSeq(anyLong())).thenReturn(3L);
+  }
+
+  @Test
+  public void beat_updates_the_jobs_held_here() {
+    jobHeartbeats.track(queuedJob);
+    jobHeartbeats.track(anonymousJob);
+    jobHeartbeats.untrack(anonymousJob);
+
+    jobHeartbeats.beat();
+
+    verify(jobsRepository).heartbeat(eq(List.of(5L)), any());
+  }
+
+  @Test
+  public void failed_beat_is_logged_and_does_not_stop_later_beats() {
+    jobHeartbeats.track(queuedJob);
+    when(jobsRepository.heartbeat(any(), any()))
+        .thenThrow(new RuntimeException("database unavailable"))
+        .thenReturn(1);
+
+    jobHeartbeats.beat();
+    jobHeartbeats.beat();
+
+    verify(jobsRepository, times(2)).heartbeat(eq(List.of(5L)), any());
+  }
+
+  @Test
+  public void heartbeats_are_sent_from_their_own_thread() {
+    ReflectionTestUtils.setField(jobHeartbeats, "heartbeatIntervalMs", 10L);
+    jobHeartbeats.track(queuedJob);
+
+    jobHeartbeats.startHeartbeats();
+    try {
+      verify(jobsRepository, timeout(1000).atLeast(2)).heartbeat(eq(List.of(5L)), any());
+    } finally {
+      jobHeartbeats.shutdown();
+    }
+  }
+
+  @Test
+  public void beat_does_nothing_when_no_jobs_are_held() {
+    jobHeartbeats.beat();
+
+    verify(jobsRepository, never()).heartbeat(any(), any());
+  }
+
+  @Test
+  public void orphans_from_the_queue_are_requeued() {
+    when(jobsRepository.findOrphans(any())).thenReturn(List.of(queuedJob));
+    when(jobsRepository.recoverOrphan(eq(5L), any(), eq("queued"))).thenReturn(1);
+
+    jobHeartbeats.recoverOrphans();
+
+    ArgumentCaptor<ZonedDateTime> cutoff = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(jobsRepository).findOrphans(cutoff.capture());
+    long ageMs = Duration.between(cutoff.getValue(), ZonedDateTime.now()).toMillis();
+    assertEquals(60, ageMs / 1000);
+    verify(jobsRepository).recoverOrphan(5L, cutoff.getValue(), "queued");
+    verify(jobLogWriter)
+        .append(5L, 3L, "The instance running this job stopped; it will be run again");
+    verify(jobLogWriter).close(5L);
+    verify(jobLogBroadcaster, never()).complete(anyLong(), anyString());
+  }
+
+  @Test
+  public void other_orphans_fail() {
+    when(jobsRepository.findOrphans(any())).thenReturn(List.of(anonymousJob));
+    when(jobsRepository.recoverOrphan(eq(6L), any(), eq("error"))).thenReturn(1);
+
+    jobHeartbeats.recoverOrphans();
+
+    verify(jobLogWriter).append(6L, 3L, "The instance running this job stopped before it finished");
+    verify(jobLogWriter).close(6L);
+    verify(jobLogBroadcaster).complete(6L, "error");
+  }
+
+  @Test
+  public void orphans_fail_when_the_queue_is_disabled() {
+    ReflectionTestUtils.setField(jobHeartbeats, "queueEnabled", false);
+    when(jobsRepository.findOrphans(any())).thenReturn(List.of(queuedJob));
+
+    jobHeartbeats.recoverOrphans();
+
+    verify(jobsRepository).recoverOrphan(eq(5L), any(), eq("error"));
+  }
+
+  @Test
+  public void orphans_recovered_elsewhere_are_left_alone() {
+    when(jobsRepository.findOrphans(any())).thenReturn(List.of(queuedJob));
+    when(jobsRepository.recoverOrphan(eq(5L), any(), eq("queued"))).thenReturn(0);
+
+    jobHeartbeats.recoverOrphans();
+
+    verify(jobLogWriter, never()).append(anyLong(), anyLong(), anyString());
+  }
+
+  @Test
+  public void jobs_held_here_are_never_orphans() {
+    jobHeartbeats.track(queuedJob);
+    when(jobsRepository.findOrphans(any())).thenReturn(List.of(queuedJob));
+
+    jobHeartbeats.recoverOrphans();
+
+    verify(jobsRepository, never()).recoverOrphan(anyLong(), any(), anyString());
+  }
+}
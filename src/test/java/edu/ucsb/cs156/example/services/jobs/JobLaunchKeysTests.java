@@ -0,0 +1,151 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ucsb.cs156.example.entities.Job;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLaunchKeysTests {
+
+  private JobLaunchKeys jobLaunchKeys;
+
+  private final AtomicInteger launches = new AtomicInteger();
+
+  @BeforeEach
+  public void setup() {
+    jobLaunchKeys = new JobLaunchKeys();
+    ReflectionTestUtils.setField(jobLaunchKeys, "ttlMs", 60_000L);
+    ReflectionTestUtils.setField(jobLaunchKeys, "maxKeys", 10);
+  }
+
+  private Supplier<Job> launch() {
+    return () -> Job.builder().id(launches.incrementAndGet()).build();
+  }
+
+  @Test
+  public void same_key_returns_the_first_job() {
+    Job first = jobLaunchKeys.launchOnce("1:a", launch());
+    Job second = jobLaunchKeys.launchOnce("1:a", launch());
+    Job other = jobLaunchKeys.launchOnce("1:b", launch());
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals(2, launches.get());
+  }
+
+  @Test
+  public void keys_are_forgotten_after_the_ttl() {
+    ReflectionTestUtils.setField(jobLaunchKeys, "ttlMs", 0L);
+
+    Job first = jobLaunchKeys.launchOnce("1:a", launch());
+    Job second = jobLaunchKeys.launchOnce("1:a", launch());
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  public void oldest_keys_are_forgotten_beyond_max_keys() {
+    ReflectionTestUtils.setField(jobLaunchKeys, "maxKeys", 1);
+
+    Job first = jobLaunchKeys.launchOnce("1:a", launch());
+    jobLaunchKeys.launchOnce("1:b", launch());
+    Job again = jobLaunchKeys.launchOnce("1:a", launch());
+
+    assertNotSame(first, again);
+    assertEquals(3, launches.get());
+  }
+
+  @Test
+  public void failed_launch_can_be_retried_with_the_same_key() {
+    IllegalStateException e =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                jobLaunchKeys.launchOnce(
+                    "1:a",
+                    () -> {
+                      throw new IllegalStateException("full");
+                    }));
+    assertEquals("full", e.getMessage());
+
+    jobLaunchKeys.launchOnce("1:a", launch());
+    assertEquals(1, launches.get());
+  }
+
+  /** Starts a launch with key "1:a" on another thread that blocks until {@code release}. */
+  private CompletableFuture<Job> slowLaunch(
+      CountDownLatch started, CountDownLatch release, RuntimeException failure) {
+    return CompletableFuture.supplyAsync(
+        () ->
+            jobLaunchKeys.launchOnce(
+                "1:a",
+                () -> {
+                  started.countDown();
+                  try {
+                    release.await();
+                  } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                  }
+                  if (failure != null) {
+                    throw failure;
+                  }
+                  return launch().get();
+                }));
+  }
+
+  /** Starts a second launch with key "1:a" and returns once it is waiting for the first. */
+  private FutureTask<Job> waitingDuplicate() throws InterruptedException {
+    FutureTask<Job> duplicate = new FutureTask<>(() -> jobLaunchKeys.launchOnce("1:a", launch()));
+    Thread thread = new Thread(duplicate);
+    thread.start();
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+    return duplicate;
+  }
+
+  @Test
+  public void duplicate_waits_for_a_launch_in_progress() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Job> first = slowLaunch(started, release, null);
+    started.await(5, TimeUnit.SECONDS);
+
+    FutureTask<Job> duplicate = waitingDuplicate();
+    release.countDown();
+
+    assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+    assertEquals(1, launches.get());
+  }
+
+  @Test
+  public void duplicate_of_a_failed_launch_fails_too() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    IllegalStateException failure = new IllegalStateException("full");
+    CompletableFuture<Job> first = slowLaunch(started, release, failure);
+    started.await(5, TimeUnit.SECONDS);
+
+    FutureTask<Job> duplicate = waitingDuplicate();
+    release.countDown();
+
+    ExecutionException e1 =
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+    assertSame(failure, e1.getCause());
+    ExecutionException e2 =
+        assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+    assertSame(failure, e2.getCause());
+  }
+}
@@ -0,0 +1,134 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+public class JobLogBackfillTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogChunksRepository jobLogChunksRepository;
+
+  @InjectMocks private JobLogBackfill jobLogBackfill;
+
+  private final JobLogCodec jobLogCodec = new JobLogCodec();
+
+  private JobLogWriter jobLogWriter;
+
+  private JobContext ctx;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogCodec, "compression", "deflate");
+    ReflectionTestUtils.setField(jobLogCodec, "compressMinBytes", 0);
+    ReflectionTestUtils.setField(jobLogBackfill, "jobLogCodec", jobLogCodec);
+    ReflectionTestUtils.setField(
+        jobLogBackfill, "transactions", TransactionOperations.withoutTransaction());
+    ReflectionTestUtils.setField(jobLogBackfill, "batchSize", 2);
+    jobLogWriter = mock(JobLogWriter.class);
+    ctx = new JobContext(jobLogWriter, Job.builder().id(1L).build());
+  }
+
+  private JobLogChunk legacy(long id, String payload) {
+    return JobLogChunk.builder().id(id).jobId(7L).seq(id).payload(payload).build();
+  }
+
+  @Test
+  public void chunks_are_compressed_in_batches() {
+    JobLogChunk first = legacy(1L, "line 1");
+    JobLogChunk second = legacy(2L, null);
+    JobLogChunk third = legacy(3L, "line 3");
+    when(jobLogChunksRepository.findByDataIsNullOrderByIdAsc(PageRequest.of(0, 2)))
+        .thenReturn(List.of(first, second))
+        .thenReturn(List.of(third))
+        .thenReturn(List.of());
+
+    jobLogBackfill.run(ctx);
+
+    verify(jobLogChunksRepository).saveAll(List.of(first, second));
+    verify(jobLogChunksRepository).saveAll(List.of(third));
+    assertNull(first.getPayload());
+    assertEquals("line 1", jobLogCodec.decode(first));
+    assertEquals(6, (int) first.getTextLength());
+    assertEquals("", jobLogCodec.decode(second));
+    assertEquals(0, (int) second.getTextLength());
+    verify(jobLogWriter).append(1L, 0L, "Done: 0 job logs moved into chunks");
+    verify(jobLogWriter).append(1L, 1L, "Compressed 2 log chunks");
+    verify(jobLogWriter).append(1L, 2L, "Compressed 3 log chunks");
+    verify(jobLogWriter).append(1L, 3L, "Done: 3 log chunks compressed");
+  }
+
+  @Test
+  public void job_logs_are_moved_into_chunks_in_batches() {
+    Job withoutChunks = Job.builder().id(7L).log("old 7").build();
+    Job withChunks = Job.builder().id(8L).log("old 8").build();
+    Job third = Job.builder().id(9L).log("old 9").build();
+    when(jobsRepository.findByLogIsNotNullOrderByIdAsc(PageRequest.of(0, 2)))
+        .thenReturn(List.of(withoutChunks, withChunks))
+        .thenReturn(List.of(third))
+        .thenReturn(List.of());
+    when(jobLogChunksRepository.findFirstByJobIdOrderBySeqAsc(8L))
+        .thenReturn(JobLogChunk.builder().id(40L).jobId(8L).seq(3L).payload("new 8").build());
+    when(jobLogChunksRepository.findByDataIsNullOrderByIdAsc(any())).thenReturn(List.of());
+
+    jobLogBackfill.run(ctx);
+
+    verify(jobLogChunksRepository).save(jobLogCodec.encode(7L, 0L, "old 7"));
+    JobLogChunk merged = jobLogCodec.encode(8L, 3L, "old 8\nnew 8");
+    merged.setId(40L);
+    verify(jobLogChunksRepository).save(merged);
+    verify(jobLogChunksRepository).save(jobLogCodec.encode(9L, 0L, "old 9"));
+    verify(jobsRepository).clearLog(7L);
+    verify(jobsRepository).clearLog(8L);
+    verify(jobsRepository).clearLog(9L);
+    verify(jobLogWriter).append(1L, 0L, "Moved 2 job logs into chunks");
+    verify(jobLogWriter).append(1L, 1L, "Moved 3 job logs into chunks");
+    verify(jobLogWriter).append(1L, 2L, "Done: 3 job logs moved into chunks");
+    verify(jobLogWriter).append(1L, 3L, "Done: 0 log chunks compressed");
+  }
+
+  @Test
+  public void cancelled_backfill_stops_before_moving_job_logs() {
+    when(jobsRepository.findByLogIsNotNullOrderByIdAsc(any()))
+        .thenReturn(List.of(Job.builder().id(7L).log("old").build()));
+    ctx.stop("cancelled");
+
+    assertThrows(CancellationException.class, () -> jobLogBackfill.run(ctx));
+
+    verify(jobsRepository, never()).clearLog(anyLong());
+  }
+
+  @Test
+  public void cancelled_backfill_stops_before_the_next_batch() {
+    when(jobLogChunksRepository.findByDataIsNullOrderByIdAsc(any()))
+        .thenReturn(List.of(legacy(1L, "line 1")));
+    ctx.stop("cancelled");
+
+    assertThrows(CancellationException.class, () -> jobLogBackfill.run(ctx));
+
+    verify(jobLogChunksRepository, never()).saveAll(any());
+  }
+}
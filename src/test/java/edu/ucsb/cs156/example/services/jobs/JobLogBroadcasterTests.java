@@ -0,0 +1,269 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.models.JobLogTail;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+public class JobLogBroadcasterTests {
+
+  private JobLogBroadcaster broadcaster;
+
+  private SseEmitter emitter;
+
+  @BeforeEach
+  public void setup() {
+    broadcaster = spy(new JobLogBroadcaster());
+    emitter = mock(SseEmitter.class);
+    doReturn(emitter).when(broadcaster).createEmitter();
+  }
+
+  private JobLogTail tail(String status, String content, long lastSeq) {
+    return JobLogTail.builder().jobId(7L).status(status).content(content).lastSeq(lastSeq).build();
+  }
+
+  /** Waits for the sender thread; it runs tasks in order, so everything queued so far is sent. */
+  private void drain() {
+    try {
+      ((ExecutorService) ReflectionTestUtils.getField(broadcaster, "sender"))
+          .submit(() -> {})
+          .get();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Returns the events sent so far, as they would appear on the wire. */
+  private List<String> sent() throws Exception {
+    drain();
+    ArgumentCaptor<SseEventBuilder> events = ArgumentCaptor.forClass(SseEventBuilder.class);
+    verify(emitter, atLeast(0)).send(events.capture());
+    return events.getAllValues().stream()
+        .map(
+            event -> {
+              StringBuilder sb = new StringBuilder();
+              for (DataWithMediaType part : event.build()) {
+                sb.append(part.getData());
+              }
+              return sb.toString();
+            })
+        .toList();
+  }
+
+  @Test
+  public void subscriber_gets_the_backlog_then_new_chunks() throws Exception {
+    assertSame(emitter, broadcaster.subscribe(7L, -1L, after -> tail("running", "a\nb", 1L)));
+
+    broadcaster.publish(7L, 2L, "c");
+    broadcaster.publish(8L, 0L, "other job");
+
+    assertEquals(
+        List.of("event:log\nid:1\ndata:a\ndata:b\n\n", "event:log\nid:2\ndata:c\n\n"), sent());
+    verify(emitter, never()).complete();
+  }
+
+  @Test
+  public void empty_backlog_sends_nothing() throws Exception {
+    broadcaster.subscribe(7L, 4L, after -> tail("running", "", after));
+
+    assertEquals(List.of(), sent());
+  }
+
+  @Test
+  public void chunks_published_while_the_backlog_is_read_are_sent_once_and_in_order()
+      throws Exception {
+    broadcaster.subscribe(
+        7L,
+        -1L,
+        after -> {
+          // chunk 1 was written before the backlog was read, chunk 2 after
+          broadcaster.publish(7L, 1L, "b");
+          broadcaster.publish(7L, 2L, "c");
+          drain();
+          return tail("running", "a\nb", 1L);
+        });
+
+    assertEquals(
+        List.of("event:log\nid:1\ndata:a\ndata:b\n\n", "event:log\nid:2\ndata:c\n\n"), sent());
+  }
+
+  @Test
+  public void subscribing_to_a_finished_job_sends_the_backlog_and_ends() throws Exception {
+    broadcaster.subscribe(7L, -1L, after -> tail("complete", "done", 0L));
+
+    assertEquals(List.of("event:log\nid:0\ndata:done\n\n", "event:end\ndata:complete\n\n"), sent());
+    verify(emitter).complete();
+
+    broadcaster.publish(7L, 1L, "late");
+    assertEquals(2, sent().size());
+  }
+
+  @Test
+  public void job_finishing_while_the_backlog_is_read_ends_after_the_backlog() throws Exception {
+    broadcaster.subscribe(
+        7L,
+        -1L,
+        after -> {
+          broadcaster.complete(7L, "error");
+          drain();
+          return tail("running", "boom", 0L);
+        });
+
+    assertEquals(List.of("event:log\nid:0\ndata:boom\n\n", "event:end\ndata:error\n\n"), sent());
+    verify(emitter).complete();
+  }
+
+  @Test
+  public void complete_tells_subscribers_the_final_status() throws Exception {
+    broadcaster.subscribe(7L, -1L, after -> tail("running", "", -1L));
+
+    broadcaster.complete(7L, "complete");
+    broadcaster.complete(8L, "complete");
+
+    assertEquals(List.of("event:end\ndata:complete\n\n"), sent());
+    verify(emitter).complete();
+  }
+
+  @Test
+  public void subscriber_is_dropped_when_a_send_fails() throws Exception {
+    doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+    broadcaster.subscribe(7L, -1L, after -> tail("running", "a", 0L));
+
+    broadcaster.publish(7L, 1L, "b");
+
+    assertEquals(1, sent().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void subscriber_is_dropped_when_the_connection_closes() throws Exception {
+    ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+    ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+    ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.forClass(Consumer.class);
+    broadcaster.subscribe(7L, -1L, after -> tail("running", "", -1L));
+    broadcaster.subscribe(7L, -1L, after -> tail("running", "", -1L));
+    broadcaster.subscribe(7L, -1L, after -> tail("running", "", -1L));
+    verify(emitter, atLeast(1)).onCompletion(onCompletion.capture());
+    verify(emitter, atLeast(1)).onTimeout(onTimeout.capture());
+    verify(emitter, atLeast(1)).onError(onError.capture());
+
+    onCompletion.getAllValues().get(0).run();
+    onTimeout.getAllValues().get(1).run();
+    onError.getAllValues().get(2).accept(new IOException("reset"));
+    broadcaster.publish(7L, 0L, "a");
+
+    assertEquals(List.of(), sent());
+  }
+
+  @Test
+  public void poll_sends_what_was_written_on_another_instance_and_ends_when_it_finishes()
+      throws Exception {
+    List<Long> polledAfter = new ArrayList<>();
+    List<JobLogTail> tails =
+        new ArrayList<>(
+            List.of(
+                tail("running", "a", 0L),
+                tail("running", "b\nc", 2L),
+                tail("running", "", 2L),
+                tail("complete", "d", 3L)));
+    broadcaster.subscribe(
+        7L,
+        -1L,
+        after -> {
+          polledAfter.add(after);
+          return tails.remove(0);
+        });
+
+    for (int i = 0; i < 3; i++) {
+      broadcaster.poll();
+      drain();
+    }
+
+    assertEquals(
+        List.of(
+            "event:log\nid:0\ndata:a\n\n",
+            "event:log\nid:2\ndata:b\ndata:c\n\n",
+            "event:log\nid:3\ndata:d\n\n",
+            "event:end\ndata:complete\n\n"),
+        sent());
+    assertEquals(List.of(-1L, 0L, 2L, 2L), polledAfter);
+    verify(emitter).complete();
+
+    broadcaster.poll();
+    assertEquals(4, polledAfter.size());
+  }
+
+  @Test
+  public void poll_after_complete_does_not_end_the_stream_twice() throws Exception {
+    broadcaster.subscribe(
+        7L,
+        -1L,
+        after -> {
+          if (after < 0) {
+            return tail("running", "", 0L);
+          }
+          broadcaster.complete(7L, "complete");
+          return tail("complete", "", after);
+        });
+
+    broadcaster.poll();
+
+    assertEquals(List.of("event:end\ndata:complete\n\n"), sent());
+    verify(emitter).complete();
+  }
+
+  @Test
+  public void poll_skips_a_subscriber_whose_log_cannot_be_read() throws Exception {
+    broadcaster.subscribe(
+        7L,
+        -1L,
+        after -> {
+          if (after < 0) {
+            return tail("running", "a", 0L);
+          }
+          throw new IllegalStateException("database unavailable");
+        });
+
+    broadcaster.poll();
+
+    assertEquals(List.of("event:log\nid:0\ndata:a\n\n"), sent());
+    verify(emitter, never()).complete();
+  }
+
+  @Test
+  public void shutdown_stops_the_sender_thread() {
+    broadcaster.shutdown();
+
+    assertTrue(
+        ((ExecutorService) ReflectionTestUtils.getField(broadcaster, "sender")).isShutdown());
+  }
+
+  @Test
+  public void createEmitter_uses_the_configured_timeout() {
+    JobLogBroadcaster real = new JobLogBroadcaster();
+    ReflectionTestUtils.setField(real, "timeoutMs", 5000L);
+
+    assertEquals(5000L, real.createEmitter().getTimeout());
+  }
+}
@@ -0,0 +1,128 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mockConstruction;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLogCodecTests {
+
+  private final String repetitive = "Processing row of the input file\n".repeat(200);
+
+  private JobLogCodec codec;
+
+  @BeforeEach
+  public void setup() {
+    codec = new JobLogCodec();
+    ReflectionTestUtils.setField(codec, "compression", "deflate");
+    ReflectionTestUtils.setField(codec, "compressMinBytes", 64);
+  }
+
+  @Test
+  public void repetitive_text_is_deflated() {
+    byte[] data = codec.compress(repetitive);
+
+    assertEquals(JobLogCodec.DEFLATE, data[0]);
+    assertTrue(data.length * 10 < repetitive.length());
+    assertEquals(repetitive, codec.decompress(data));
+  }
+
+  @Test
+  public void compress_passes_on_an_unexpected_write_failure() {
+    ReflectionTestUtils.setField(codec, "compression", "gzip");
+
+    try (MockedConstruction<GZIPOutputStream> gzip =
+        mockConstruction(
+            GZIPOutputStream.class,
+            (mock, context) -> doThrow(new IOException("boom")).when(mock).write(any()))) {
+      IOException e = assertThrows(IOException.class, () -> codec.compress(repetitive));
+      assertEquals("boom", e.getMessage());
+    }
+  }
+
+  @Test
+  public void repetitive_text_is_gzipped() {
+    ReflectionTestUtils.setField(codec, "compression", "gzip");
+
+    byte[] data = codec.compress(repetitive);
+
+    assertEquals(JobLogCodec.GZIP, data[0]);
+    assertTrue(data.length * 10 < repetitive.length());
+    assertEquals(repetitive, codec.decompress(data));
+  }
+
+  @Test
+  public void short_text_is_stored_plain() {
+    byte[] data = codec.compress("héllo");
+
+    assertEquals(JobLogCodec.PLAIN, data[0]);
+    assertEquals(7, data.length);
+    assertEquals("héllo", codec.decompress(data));
+  }
+
+  @Test
+  public void text_that_does_not_shrink_is_stored_plain() {
+    ReflectionTestUtils.setField(codec, "compressMinBytes", 0);
+
+    byte[] data = codec.compress("abcdefgh");
+
+    assertEquals(JobLogCodec.PLAIN, data[0]);
+    assertEquals("abcdefgh", codec.decompress(data));
+  }
+
+  @Test
+  public void compression_can_be_turned_off() {
+    ReflectionTestUtils.setField(codec, "compression", "none");
+
+    byte[] data = codec.compress(repetitive);
+
+    assertEquals(JobLogCodec.PLAIN, data[0]);
+    assertEquals(repetitive, codec.decompress(data));
+  }
+
+  @Test
+  public void encode_builds_a_chunk_and_decode_reads_it() {
+    JobLogChunk chunk = codec.encode(7L, 3L, repetitive);
+
+    assertEquals(7L, chunk.getJobId());
+    assertEquals(3L, chunk.getSeq());
+    assertEquals(repetitive.length(), (int) chunk.getTextLength());
+    assertNull(chunk.getPayload());
+    assertEquals(repetitive, codec.decode(chunk));
+  }
+
+  @Test
+  public void decode_reads_chunks_written_before_compression() {
+    JobLogChunk chunk = JobLogChunk.builder().jobId(7L).seq(0L).payload("old").build();
+
+    assertEquals("old", codec.decode(chunk));
+  }
+
+  @Test
+  public void bad_data_is_rejected() {
+    IllegalArgumentException empty =
+        assertThrows(IllegalArgumentException.class, () -> codec.decompress(new byte[0]));
+    assertEquals("Empty log chunk data", empty.getMessage());
+
+    IllegalArgumentException unknown =
+        assertThrows(IllegalArgumentException.class, () -> codec.decompress(new byte[] {9, 1}));
+    assertEquals("Unknown log chunk format 9", unknown.getMessage());
+
+    IllegalArgumentException corrupt =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> codec.decompress(new byte[] {JobLogCodec.GZIP, 1, 2, 3}));
+    assertTrue(corrupt.getMessage().startsWith("Corrupt log chunk data: "));
+  }
+}
@@ -0,0 +1,238 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLogWriterTests {
+
+  @Mock private JobLogChunksRepository jobLogChunksRepository;
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Spy private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Mock private JobLogBroadcaster jobLogBroadcaster;
+
+  private final JobLogCodec jobLogCodec = new JobLogCodec();
+
+  @InjectMocks private JobLogWriter jobLogWriter;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogWriter, "buffered", true);
+    ReflectionTestUtils.setField(jobLogWriter, "flushLines", 3);
+    ReflectionTestUtils.setField(jobLogWriter, "flushIntervalMs", 60_000L);
+    ReflectionTestUtils.setField(jobLogWriter, "maxBufferedLines", 5);
+    ReflectionTestUtils.setField(jobLogCodec, "compression", "deflate");
+    ReflectionTestUtils.setField(jobLogCodec, "compressMinBytes", 0);
+    ReflectionTestUtils.setField(jobLogWriter, "jobLogCodec", jobLogCodec);
+    jobLogWriter.open(7L);
+  }
+
+  private JobLogChunk chunk(long jobId, long seq, String payload) {
+    return jobLogCodec.encode(jobId, seq, payload);
+  }
+
+  @Test
+  public void unbuffered_append_saves_each_line_immediately() {
+    ReflectionTestUtils.setField(jobLogWriter, "buffered", false);
+    jobLogWriter.open(8L);
+
+    jobLogWriter.append(8L, 0L, "line 1");
+
+    verify(jobLogChunksRepository).save(chunk(8L, 0L, "line 1"));
+  }
+
+  @Test
+  public void append_to_a_job_without_a_buffer_saves_the_line_immediately() {
+    jobLogWriter.close(7L);
+
+    jobLogWriter.append(7L, 0L, "line 1");
+    jobLogWriter.append(7L, 1L, "line 2");
+
+    verify(jobLogChunksRepository).save(chunk(7L, 0L, "line 1"));
+    verify(jobLogChunksRepository).save(chunk(7L, 1L, "line 2"));
+    verify(jobLogBroadcaster).publish(7L, 0L, "line 1");
+    verify(jobLogBroadcaster).publish(7L, 1L, "line 2");
+    verify(jobsRepository, never()).addLogLength(anyLong(), anyLong());
+
+    jobLogWriter.flushDue();
+
+    verify(jobsRepository, times(1)).addLogLength(anyLong(), anyLong());
+    verify(jobsRepository).addLogLength(7L, 12L);
+  }
+
+  @Test
+  public void buffered_lines_are_written_as_one_chunk_on_close() {
+    jobLogWriter.append(7L, 0L, "line 1");
+    jobLogWriter.append(7L, 1L, "line 2");
+    verify(jobLogChunksRepository, never()).save(any());
+    verify(jobLogBroadcaster, never()).publish(anyLong(), anyLong(), any());
+
+    jobLogWriter.close(7L);
+
+    verify(jobLogChunksRepository, times(1)).save(chunk(7L, 1L, "line 1\nline 2"));
+    verify(jobLogBroadcaster).publish(7L, 1L, "line 1\nline 2");
+    verify(jobsRepository).addLogLength(7L, 13L);
+    assertEquals(1, meterRegistry.timer("jobs.log.flush").count());
+  }
+
+  @Test
+  public void buffer_is_flushed_when_it_reaches_flush_lines() {
+    jobLogWriter.append(7L, 0L, "a");
+    jobLogWriter.append(7L, 1L, "b");
+    jobLogWriter.append(7L, 2L, "c");
+    jobLogWriter.append(7L, 3L, "d");
+
+    verify(jobLogChunksRepository, times(1)).save(chunk(7L, 2L, "a\nb\nc"));
+
+    jobLogWriter.close(7L);
+
+    verify(jobLogChunksRepository, times(1)).save(chunk(7L, 3L, "d"));
+  }
+
+  @Test
+  public void flushDue_only_flushes_buffers_older_than_the_interval() {
+    jobLogWriter.append(7L, 0L, "a");
+
+    jobLogWriter.flushDue();
+    verify(jobLogChunksRepository, never()).save(any());
+
+    ReflectionTestUtils.setField(jobLogWriter, "flushIntervalMs", 0L);
+    jobLogWriter.flushDue();
+    verify(jobLogChunksRepository, times(1)).save(chunk(7L, 0L, "a"));
+
+    jobLogWriter.flushDue();
+    verify(jobLogChunksRepository, times(1)).save(any());
+  }
+
+  @Test
+  public void failed_flush_keeps_lines_and_retries() {
+    when(jobLogChunksRepository.save(any()))
+        .thenThrow(new RuntimeException("database unavailable"))
+        .thenReturn(null);
+
+    jobLogWriter.append(7L, 0L, "a");
+    jobLogWriter.append(7L, 1L, "b");
+    jobLogWriter.append(7L, 2L, "c");
+
+    assertEquals(3.0, meterRegistry.counter("jobs.log.lines.retried").count());
+
+    jobLogWriter.append(7L, 3L, "d");
+
+    verify(jobLogChunksRepository, times(1)).save(chunk(7L, 3L, "a\nb\nc\nd"));
+    assertEquals(1, meterRegistry.timer("jobs.log.flush").count());
+    verify(jobLogBroadcaster, times(1)).publish(anyLong(), anyLong(), any());
+    verify(jobLogBroadcaster).publish(7L, 3L, "a\nb\nc\nd");
+    verify(jobsRepository, never()).addLogLength(anyLong(), anyLong());
+
+    jobLogWriter.close(7L);
+
+    verify(jobsRepository, times(1)).addLogLength(anyLong(), anyLong());
+    verify(jobsRepository).addLogLength(7L, 7L);
+  }
+
+  @Test
+  public void failed_log_length_update_is_retried_by_the_next_flushDue() {
+    when(jobsRepository.addLogLength(7L, 1L))
+        .thenThrow(new RuntimeException("database unavailable"));
+    jobLogWriter.append(7L, 0L, "a");
+
+    jobLogWriter.close(7L);
+    jobLogWriter.append(7L, 1L, "bc");
+    jobLogWriter.flushDue();
+    jobLogWriter.flushDue();
+
+    verify(jobsRepository).addLogLength(7L, 1L);
+    verify(jobsRepository).addLogLength(7L, 3L);
+    verify(jobsRepository, times(2)).addLogLength(anyLong(), anyLong());
+  }
+
+  @Test
+  public void lines_are_dropped_when_the_buffer_is_full() {
+    when(jobLogChunksRepository.save(any())).thenThrow(new RuntimeException("database down"));
+
+    for (int i = 0; i < 7; i++) {
+      jobLogWriter.append(7L, i, "line " + i);
+    }
+    assertEquals(2.0, meterRegistry.counter("jobs.log.lines.dropped").count());
+
+    jobLogWriter.close(7L);
+    assertEquals(7.0, meterRegistry.counter("jobs.log.lines.dropped").count());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void line_appended_to_a_closed_buffer_is_written_straight_through() {
+    jobLogWriter.append(7L, 0L, "line 1");
+    Map<Long, Object> buffers =
+        (Map<Long, Object>) ReflectionTestUtils.getField(jobLogWriter, "buffers");
+    Object buffer = buffers.get(7L);
+
+    jobLogWriter.close(7L);
+    // an append that looked the buffer up just before close removed it
+    buffers.put(7L, buffer);
+    jobLogWriter.append(7L, 1L, "line 2");
+
+    verify(jobLogChunksRepository).save(chunk(7L, 0L, "line 1"));
+    verify(jobLogChunksRepository).save(chunk(7L, 1L, "line 2"));
+  }
+
+  @Test
+  public void open_keeps_an_existing_buffer() {
+    jobLogWriter.append(7L, 0L, "line 1");
+    jobLogWriter.open(7L);
+
+    jobLogWriter.close(7L);
+
+    verify(jobLogChunksRepository).save(chunk(7L, 0L, "line 1"));
+  }
+
+  @Test
+  public void close_of_an_unknown_job_does_nothing() {
+    jobLogWriter.close(8L);
+
+    verify(jobLogChunksRepository, never()).save(any());
+  }
+
+  @Test
+  public void close_without_any_lines_does_nothing() {
+    jobLogWriter.close(7L);
+
+    verify(jobLogChunksRepository, never()).save(any());
+  }
+
+  @Test
+  public void nextSeq_follows_the_last_line_written() {
+    when(jobLogChunksRepository.findMaxSeq(7L)).thenReturn(41L);
+
+    assertEquals(42L, jobLogWriter.nextSeq(7L));
+  }
+
+  @Test
+  public void nextSeq_of_an_empty_log_is_zero() {
+    when(jobLogChunksRepository.findMaxSeq(7L)).thenReturn(null);
+
+    assertEquals(0L, jobLogWriter.nextSeq(7L));
+  }
+}
@@ -0,0 +1,170 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.models.JobTypeMetrics;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+public class JobMetricsTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Spy private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @InjectMocks private JobMetrics jobMetrics;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(jobsRepository.countQueuedByJobType()).thenReturn(List.of());
+  }
+
+  private Job job(String jobType) {
+    return Job.builder().jobType(jobType).status("running").build();
+  }
+
+  @Test
+  public void meters_are_tagged_by_job_type() {
+    Job job = job("TestJob");
+    job.setCreatedAt(ZonedDateTime.now().minusSeconds(2));
+
+    jobMetrics.submitted(job);
+    jobMetrics.handedToExecutor(job);
+    assertEquals(1.0, meterRegistry.get("jobs.pending").tag("type", "TestJob").gauge().value());
+
+    long start = jobMetrics.started(job);
+    assertEquals(0.0, meterRegistry.get("jobs.pending").tag("type", "TestJob").gauge().value());
+    assertEquals(1.0, meterRegistry.get("jobs.active").tag("type", "TestJob").gauge().value());
+
+    job.setStatus("complete");
+    jobMetrics.finished(job, start);
+
+    assertEquals(1.0, meterRegistry.get("jobs.submitted").tag("type", "TestJob").counter().count());
+    assertEquals(0.0, meterRegistry.get("jobs.active").tag("type", "TestJob").gauge().value());
+    assertEquals(1, meterRegistry.get("jobs.wait").tag("type", "TestJob").timer().count());
+    assertTrue(
+        meterRegistry.get("jobs.wait").tag("type", "TestJob").timer().totalTime(TimeUnit.SECONDS)
+            >= 2.0);
+    assertEquals(
+        1,
+        meterRegistry
+            .get("jobs.run")
+            .tags("type", "TestJob", "status", "complete")
+            .timer()
+            .count());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("jobs.finished")
+            .tags("type", "TestJob", "status", "complete")
+            .counter()
+            .count());
+  }
+
+  @Test
+  public void rejected_jobs_are_no_longer_pending() {
+    Job job = job(null);
+
+    jobMetrics.handedToExecutor(job);
+    jobMetrics.rejectedByExecutor(job);
+
+    assertEquals(0.0, meterRegistry.get("jobs.pending").tag("type", "unknown").gauge().value());
+  }
+
+  @Test
+  public void jobs_cancelled_before_they_start_are_no_longer_pending() {
+    Job job = job(null);
+
+    jobMetrics.handedToExecutor(job);
+    jobMetrics.cancelledBeforeStart(job);
+
+    assertEquals(0.0, meterRegistry.get("jobs.pending").tag("type", "unknown").gauge().value());
+  }
+
+  @Test
+  public void jobs_without_a_creation_time_record_no_wait() {
+    Job job = job("TestJob");
+
+    jobMetrics.started(job);
+
+    assertTrue(meterRegistry.find("jobs.wait").timers().isEmpty());
+  }
+
+  @Test
+  public void snapshot_summarizes_each_job_type() {
+    when(jobsRepository.countQueuedByJobType())
+        .thenReturn(List.of(new Object[] {"QueuedJob", 3L}, new Object[] {null, 1L}));
+
+    Job ok = job("TestJob");
+    ok.setCreatedAt(ZonedDateTime.now());
+    jobMetrics.submitted(ok);
+    jobMetrics.handedToExecutor(ok);
+    long start = jobMetrics.started(ok);
+    ok.setStatus("complete");
+    jobMetrics.finished(ok, start);
+
+    Job failed = job("TestJob");
+    jobMetrics.submitted(failed);
+    jobMetrics.handedToExecutor(failed);
+    start = jobMetrics.started(failed);
+    failed.setStatus("error");
+    jobMetrics.finished(failed, start);
+
+    Job waiting = job("TestJob");
+    jobMetrics.submitted(waiting);
+    jobMetrics.handedToExecutor(waiting);
+
+    meterRegistry.counter("jobs.other", "type", "TestJob").increment();
+    meterRegistry.counter("other.metric", "type", "OtherJob").increment();
+    meterRegistry.counter("jobs.untyped").increment();
+
+    List<JobTypeMetrics> snapshot = jobMetrics.snapshot();
+
+    assertEquals(3, snapshot.size());
+    assertEquals(JobTypeMetrics.builder().jobType("QueuedJob").queued(3L).build(), snapshot.get(0));
+    JobTypeMetrics testJob = snapshot.get(1);
+    assertEquals("TestJob", testJob.getJobType());
+    assertEquals(3L, testJob.getSubmitted());
+    assertEquals(0L, testJob.getQueued());
+    assertEquals(1L, testJob.getPending());
+    assertEquals(0L, testJob.getActive());
+    assertEquals(1L, testJob.getCompleted());
+    assertEquals(1L, testJob.getFailed());
+    assertTrue(testJob.getWaitMeanMs() >= 0);
+    assertTrue(testJob.getRunMaxMs() >= testJob.getRunMeanMs());
+    assertEquals(JobTypeMetrics.builder().jobType("unknown").queued(1L).build(), snapshot.get(2));
+  }
+
+  @Test
+  public void snapshot_of_a_type_that_never_waited_has_zero_wait() {
+    Job job = job("TestJob");
+    jobMetrics.handedToExecutor(job);
+    long start = jobMetrics.started(job);
+    job.setStatus("complete");
+    jobMetrics.finished(job, start);
+    Job timed = job("TimedJob");
+    timed.setCreatedAt(ZonedDateTime.now().plusSeconds(5)); // clock skew between instances
+    jobMetrics.started(timed);
+
+    List<JobTypeMetrics> snapshot = jobMetrics.snapshot();
+
+    assertEquals(0.0, snapshot.get(0).getWaitMeanMs());
+    assertEquals(0.0, snapshot.get(0).getWaitMaxMs());
+    assertEquals(0.0, snapshot.get(1).getWaitMeanMs());
+    assertEquals(0.0, snapshot.get(1).getRunMeanMs());
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class JobProgressTrackerTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @InjectMocks private JobProgressTracker jobProgressTracker;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void latest_report_is_kept_in_memory() {
+    jobProgressTracker.report(7L, 1L, 100L);
+    jobProgressTracker.report(7L, 2L, 100L);
+
+    JobProgress expected =
+        JobProgress.builder().jobId(7L).status("running").done(2L).total(100L).build();
+    assertEquals(expected, jobProgressTracker.get(7L));
+    assertNull(jobProgressTracker.get(8L));
+    verify(jobsRepository, never()).updateProgress(anyLong(), anyLong(), anyLong());
+  }
+
+  @Test
+  public void persist_writes_only_progress_that_changed() {
+    jobProgressTracker.report(7L, 1L, 100L);
+    jobProgressTracker.report(7L, 2L, 100L);
+
+    jobProgressTracker.persist();
+    jobProgressTracker.persist();
+
+    verify(jobsRepository, times(1)).updateProgress(anyLong(), anyLong(), anyLong());
+    verify(jobsRepository).updateProgress(7L, 2L, 100L);
+  }
+
+  @Test
+  public void failed_persist_is_retried() {
+    when(jobsRepository.updateProgress(7L, 1L, 100L))
+        .thenThrow(new RuntimeException("database unavailable"))
+        .thenReturn(1);
+    jobProgressTracker.report(7L, 1L, 100L);
+
+    jobProgressTracker.persist();
+    jobProgressTracker.persist();
+
+    verify(jobsRepository, times(2)).updateProgress(7L, 1L, 100L);
+  }
+
+  @Test
+  public void finished_moves_the_progress_onto_the_job() {
+    Job job = Job.builder().id(7L).build();
+    jobProgressTracker.report(7L, 100L, 100L);
+
+    jobProgressTracker.finished(job);
+    jobProgressTracker.persist();
+
+    assertEquals(100L, job.getProgressDone());
+    assertEquals(100L, job.getProgressTotal());
+    assertNull(jobProgressTracker.get(7L));
+    verify(jobsRepository, never()).updateProgress(anyLong(), anyLong(), anyLong());
+  }
+
+  @Test
+  public void persist_racing_with_finished_does_not_track_the_job_again() {
+    Job job = Job.builder().id(7L).build();
+    jobProgressTracker.report(7L, 50L, 100L);
+    when(jobsRepository.updateProgress(7L, 50L, 100L))
+        .thenAnswer(
+            invocation -> {
+              jobProgressTracker.report(7L, 100L, 100L);
+              jobProgressTracker.finished(job);
+              // the job's row is no longer "running"
+              return 0;
+            });
+
+    jobProgressTracker.persist();
+
+    assertEquals(100L, job.getProgressDone());
+    assertNull(jobProgressTracker.get(7L));
+  }
+
+  @Test
+  public void finished_leaves_jobs_without_progress_alone() {
+    Job job = Job.builder().id(7L).build();
+
+    jobProgressTracker.finished(job);
+
+    assertNull(job.getProgressDone());
+  }
+}
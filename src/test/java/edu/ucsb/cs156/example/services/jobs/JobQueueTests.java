@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobQueueTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @InjectMocks private JobQueue jobQueue;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobQueue, "self", jobQueue);
+  }
+
+  @Test
+  public void claim_with_skip_locked_marks_locked_jobs_running() {
+    ReflectionTestUtils.setField(jobQueue, "skipLocked", true);
+    Job job1 = Job.builder().id(1L).status("queued").build();
+    Job job2 = Job.builder().id(2L).status("queued").build();
+    when(jobsRepository.findQueuedForUpdateSkipLocked(2)).thenReturn(List.of(job1, job2));
+
+    List<Job> claimed = jobQueue.claim(2);
+
+    assertEquals(List.of(job1, job2), claimed);
+    assertEquals("running", job1.getStatus());
+    assertEquals("running", job2.getStatus());
+    assertNotNull(job1.getHeartbeatAt());
+    assertNotNull(job2.getHeartbeatAt());
+    assertNotNull(job1.getClaimToken());
+    verify(jobsRepository, never()).claimQueued(anyLong(), any(), any());
+  }
+
+  @Test
+  public void claim_without_skip_locked_keeps_only_rows_it_won() {
+    ReflectionTestUtils.setField(jobQueue, "skipLocked", false);
+    Job job1 = Job.builder().id(1L).status("running").build();
+    Job job3 = Job.builder().id(3L).status("running").build();
+    when(jobsRepository.findQueuedIds(PageRequest.of(0, 3))).thenReturn(List.of(1L, 2L, 3L));
+    when(jobsRepository.claimQueued(eq(1L), any(), any())).thenReturn(1);
+    when(jobsRepository.claimQueued(eq(2L), any(), any())).thenReturn(0);
+    when(jobsRepository.claimQueued(eq(3L), any(), any())).thenReturn(1);
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job1));
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(job3));
+
+    List<Job> claimed = jobQueue.claim(3);
+
+    assertEquals(List.of(job1, job3), claimed);
+    verify(jobsRepository, never()).findById(2L);
+    verify(jobsRepository, never()).findQueuedForUpdateSkipLocked(anyInt());
+  }
+}
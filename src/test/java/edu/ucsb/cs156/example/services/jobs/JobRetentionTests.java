@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobRetentionTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private LeaderElection leaderElection;
+
+  @InjectMocks private JobRetention jobRetention;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobRetention, "maxAgeDays", 30);
+    ReflectionTestUtils.setField(jobRetention, "maxCountPerStatus", 100);
+    ReflectionTestUtils.setField(jobRetention, "batchSize", 2);
+    when(leaderElection.isLeader(JobRetention.LEASE)).thenReturn(true);
+  }
+
+  @Test
+  public void only_the_leader_purges() {
+    when(leaderElection.isLeader(JobRetention.LEASE)).thenReturn(false);
+
+    assertEquals(0, jobRetention.purge());
+
+    verify(jobsRepository, never()).findDistinctStatuses();
+  }
+
+  @Test
+  public void old_jobs_are_deleted_in_batches() {
+    when(jobsRepository.findDistinctStatuses()).thenReturn(List.of("complete"));
+    when(jobsRepository.findIdsByStatusCreatedBefore(
+            eq("complete"), any(), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(3L));
+    when(jobsRepository.findIdsByStatusNewestFirst("complete", PageRequest.of(100, 1)))
+        .thenReturn(List.of());
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+    when(jobsRepository.deleteByIdIn(List.of(3L))).thenReturn(1);
+
+    assertEquals(3, jobRetention.purge());
+
+    ArgumentCaptor<ZonedDateTime> cutoff = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(jobsRepository, times(2))
+        .findIdsByStatusCreatedBefore(eq("complete"), cutoff.capture(), any());
+    ZonedDateTime expected = ZonedDateTime.now().minusDays(30);
+    assertEquals(expected.toLocalDate(), cutoff.getValue().toLocalDate());
+    verify(jobsRepository, never()).findIdsByStatusUpTo(anyString(), anyLong(), any());
+  }
+
+  @Test
+  public void jobs_beyond_the_count_limit_are_deleted_in_batches() {
+    when(jobsRepository.findDistinctStatuses()).thenReturn(List.of("error"));
+    when(jobsRepository.findIdsByStatusCreatedBefore(eq("error"), any(), any()))
+        .thenReturn(List.of());
+    when(jobsRepository.findIdsByStatusNewestFirst("error", PageRequest.of(100, 1)))
+        .thenReturn(List.of(50L));
+    when(jobsRepository.findIdsByStatusUpTo("error", 50L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(10L, 20L))
+        .thenReturn(List.of());
+    when(jobsRepository.deleteByIdIn(List.of(10L, 20L))).thenReturn(2);
+
+    assertEquals(2, jobRetention.purge());
+
+    verify(jobsRepository, times(1)).deleteByIdIn(any());
+  }
+
+  @Test
+  public void queued_and_running_jobs_are_never_deleted() {
+    when(jobsRepository.findDistinctStatuses()).thenReturn(List.of("queued", "running"));
+
+    assertEquals(0, jobRetention.purge());
+
+    verify(jobsRepository, never()).findIdsByStatusCreatedBefore(anyString(), any(), any());
+    verify(jobsRepository, never()).findIdsByStatusNewestFirst(anyString(), any());
+    verify(jobsRepository, never()).deleteByIdIn(any());
+  }
+
+  @Test
+  public void limits_set_to_zero_are_turned_off() {
+    ReflectionTestUtils.setField(jobRetention, "maxAgeDays", 0);
+    ReflectionTestUtils.setField(jobRetention, "maxCountPerStatus", 0);
+    when(jobsRepository.findDistinctStatuses()).thenReturn(List.of("complete"));
+
+    assertEquals(0, jobRetention.purge());
+
+    verify(jobsRepository, never()).findIdsByStatusCreatedBefore(anyString(), any(), any());
+    verify(jobsRepository, never()).findIdsByStatusNewestFirst(anyString(), any());
+  }
+}
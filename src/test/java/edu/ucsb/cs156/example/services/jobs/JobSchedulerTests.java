@@ -0,0 +1,222 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobSchedulerTests {
+
+  @Mock private JobService jobService;
+
+  @InjectMocks private JobScheduler jobScheduler;
+
+  private final User alice = User.builder().id(1L).email("alice@example.org").build();
+  private final User bob = User.builder().id(2L).email("bob@example.org").build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    configure(1, 100, 0);
+  }
+
+  private void configure(int concurrency, int queueCapacity, int perUserConcurrency) {
+    ReflectionTestUtils.setField(jobScheduler, "concurrency", concurrency);
+    ReflectionTestUtils.setField(jobScheduler, "queueCapacity", queueCapacity);
+    ReflectionTestUtils.setField(jobScheduler, "perUserConcurrency", perUserConcurrency);
+    ReflectionTestUtils.setField(jobScheduler, "systemConcurrency", 0);
+    ReflectionTestUtils.setField(jobScheduler, "interactiveWeight", 2);
+    ReflectionTestUtils.setField(jobScheduler, "normalWeight", 1);
+    ReflectionTestUtils.setField(jobScheduler, "bulkWeight", 1);
+    jobScheduler.createLanes();
+  }
+
+  private Job job(long id, User user) {
+    return Job.builder().id(id).createdBy(user).status("running").build();
+  }
+
+  private TestJob work(JobPriority priority) {
+    return TestJob.builder().priority(priority).build();
+  }
+
+  private List<Long> started() {
+    ArgumentCaptor<Job> jobs = ArgumentCaptor.forClass(Job.class);
+    verify(jobService, atLeast(0)).runJobAsync(jobs.capture(), any());
+    List<Long> ids = new ArrayList<>();
+    for (Job job : jobs.getAllValues()) {
+      ids.add(job.getId());
+    }
+    return ids;
+  }
+
+  @Test
+  public void jobs_start_while_threads_are_free() {
+    configure(2, 100, 0);
+    Job first = job(1L, alice);
+
+    assertEquals(2, jobScheduler.freeSlots());
+    jobScheduler.submit(first, work(JobPriority.NORMAL));
+    assertEquals(1, jobScheduler.freeSlots());
+    jobScheduler.submit(job(2L, alice), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(3L, alice), work(JobPriority.NORMAL));
+    assertEquals(List.of(1L, 2L), started());
+    assertEquals(0, jobScheduler.freeSlots());
+
+    jobScheduler.finished(first);
+    assertEquals(List.of(1L, 2L, 3L), started());
+    assertEquals(0, jobScheduler.freeSlots());
+  }
+
+  @Test
+  public void lanes_share_threads_by_weight() {
+    Job blocker = job(0L, alice);
+    jobScheduler.submit(blocker, work(JobPriority.NORMAL));
+    List<Job> jobs = new ArrayList<>();
+    long id = 1;
+    for (JobPriority priority :
+        List.of(
+            JobPriority.INTERACTIVE,
+            JobPriority.INTERACTIVE,
+            JobPriority.INTERACTIVE,
+            JobPriority.INTERACTIVE,
+            JobPriority.NORMAL,
+            JobPriority.NORMAL,
+            JobPriority.BULK,
+            JobPriority.BULK)) {
+      Job job = job(id++, alice);
+      jobs.add(job);
+      jobScheduler.submit(job, work(priority));
+    }
+
+    jobScheduler.finished(blocker);
+    for (int i = 0; i < jobs.size(); i++) {
+      jobScheduler.finished(job(started().get(started().size() - 1), alice));
+    }
+
+    // interactive jobs are 1-4, normal 5-6, bulk 7-8; weights are 2:1:1
+    assertEquals(List.of(0L, 1L, 5L, 7L, 2L, 3L, 6L, 8L, 4L), started());
+  }
+
+  @Test
+  public void users_at_their_limit_are_passed_over() {
+    configure(3, 100, 1);
+    Job aliceFirst = job(1L, alice);
+
+    jobScheduler.submit(aliceFirst, work(JobPriority.NORMAL));
+    jobScheduler.submit(job(2L, alice), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(3L, bob), work(JobPriority.NORMAL));
+    assertEquals(List.of(1L, 3L), started());
+
+    jobScheduler.finished(aliceFirst);
+    assertEquals(List.of(1L, 3L, 2L), started());
+  }
+
+  @Test
+  public void jobs_without_a_user_are_not_held_to_the_per_user_limit() {
+    configure(3, 100, 1);
+
+    jobScheduler.submit(job(1L, null), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(2L, null), work(JobPriority.NORMAL));
+
+    assertEquals(List.of(1L, 2L), started());
+  }
+
+  @Test
+  public void jobs_without_a_user_have_their_own_limit() {
+    configure(3, 100, 0);
+    ReflectionTestUtils.setField(jobScheduler, "systemConcurrency", 1);
+
+    jobScheduler.submit(job(1L, null), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(2L, null), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(3L, alice), work(JobPriority.NORMAL));
+
+    assertEquals(List.of(1L, 3L), started());
+  }
+
+  @Test
+  public void jobs_are_rejected_when_too_many_are_waiting() {
+    configure(1, 1, 0);
+
+    jobScheduler.submit(job(1L, alice), work(JobPriority.NORMAL));
+    jobScheduler.submit(job(2L, alice), work(JobPriority.NORMAL));
+
+    TaskRejectedException e =
+        assertThrows(
+            TaskRejectedException.class,
+            () -> jobScheduler.submit(job(3L, bob), work(JobPriority.NORMAL)));
+    assertEquals("Job executor is at capacity; try again later", e.getMessage());
+  }
+
+  @Test
+  public void a_job_that_could_start_is_never_rejected() {
+    configure(2, 0, 1);
+
+    jobScheduler.submit(job(1L, alice), work(JobPriority.NORMAL));
+    assertThrows(
+        TaskRejectedException.class,
+        () -> jobScheduler.submit(job(2L, alice), work(JobPriority.NORMAL)));
+    jobScheduler.submit(job(3L, bob), work(JobPriority.NORMAL));
+
+    assertEquals(List.of(1L, 3L), started());
+  }
+
+  @Test
+  public void jobs_refused_by_the_executor_are_retried() {
+    Job job = job(1L, alice);
+    doThrow(new TaskRejectedException("full"))
+        .doNothing()
+        .when(jobService)
+        .runJobAsync(any(), any());
+
+    jobScheduler.submit(job, work(JobPriority.NORMAL));
+    verify(jobService, times(1)).runJobAsync(any(), any());
+
+    jobScheduler.dispatch();
+    verify(jobService, times(2)).runJobAsync(any(), any());
+
+    jobScheduler.dispatch();
+    verify(jobService, times(2)).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void cancelled_waiting_jobs_never_start() {
+    Job first = job(1L, alice);
+    Job second = job(2L, alice);
+    jobScheduler.submit(first, work(JobPriority.NORMAL));
+    jobScheduler.submit(job(3L, bob), work(JobPriority.BULK));
+    jobScheduler.submit(second, work(JobPriority.NORMAL));
+
+    assertEquals(second, jobScheduler.cancel(2L));
+    assertNull(jobScheduler.cancel(2L));
+    assertNull(jobScheduler.cancel(1L));
+
+    jobScheduler.finished(first);
+    assertEquals(List.of(1L, 3L), started());
+  }
+
+  @Test
+  public void dispatch_with_nothing_waiting_does_nothing() {
+    jobScheduler.dispatch();
+
+    verify(jobService, never()).runJobAsync(any(), any());
+  }
+}
@@ -0,0 +1,166 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobSchedulesTests {
+
+  @Mock private JobSchedulesRepository jobSchedulesRepository;
+
+  @Mock private JobService jobService;
+
+  @Mock private JobDescriptors jobDescriptors;
+
+  @Mock private LeaderElection leaderElection;
+
+  @InjectMocks private JobSchedules jobSchedules;
+
+  private final JobContextConsumer jobFunction = ctx -> {};
+
+  private final ZonedDateTime due = ZonedDateTime.now().minusMinutes(1);
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobSchedules, "enabled", true);
+    when(jobSchedulesRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(jobDescriptors.read("descriptor")).thenReturn(jobFunction);
+    when(leaderElection.isLeader(JobSchedules.LEASE)).thenReturn(true);
+  }
+
+  private JobSchedule schedule(boolean enabled) {
+    return JobSchedule.builder()
+        .id(5L)
+        .name("nightly")
+        .cron("0 0 2 * * *")
+        .descriptor("descriptor")
+        .enabled(enabled)
+        .nextRunAt(due)
+        .build();
+  }
+
+  @Test
+  public void save_works_out_the_next_run() {
+    JobSchedule saved = jobSchedules.save(schedule(true));
+
+    assertTrue(saved.getNextRunAt().isAfter(ZonedDateTime.now()));
+    assertEquals(2, saved.getNextRunAt().getHour());
+    assertEquals(0, saved.getNextRunAt().getMinute());
+    verify(jobSchedulesRepository).save(saved);
+  }
+
+  @Test
+  public void save_of_a_disabled_schedule_clears_the_next_run() {
+    JobSchedule saved = jobSchedules.save(schedule(false));
+
+    assertNull(saved.getNextRunAt());
+  }
+
+  @Test
+  public void save_rejects_an_invalid_cron_expression() {
+    JobSchedule schedule = schedule(true);
+    schedule.setCron("every day");
+
+    assertThrows(IllegalArgumentException.class, () -> jobSchedules.save(schedule));
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @Test
+  public void save_rejects_an_invalid_descriptor() {
+    when(jobDescriptors.read("descriptor")).thenThrow(new IllegalArgumentException("not a job"));
+
+    assertThrows(IllegalArgumentException.class, () -> jobSchedules.save(schedule(true)));
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @Test
+  public void runDue_starts_due_jobs_it_claims() {
+    when(jobSchedulesRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(schedule(true)));
+    when(jobSchedulesRepository.claimRun(eq(5L), eq(due), any(), any())).thenReturn(1);
+    when(jobService.runAsJob(jobFunction)).thenReturn(Job.builder().id(9L).build());
+
+    jobSchedules.runDue();
+
+    ArgumentCaptor<ZonedDateTime> next = ArgumentCaptor.forClass(ZonedDateTime.class);
+    ArgumentCaptor<ZonedDateTime> now = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(jobSchedulesRepository).claimRun(eq(5L), eq(due), next.capture(), now.capture());
+    assertTrue(next.getValue().isAfter(now.getValue()));
+    assertEquals(2, next.getValue().getHour());
+    verify(jobService).runAsJob(jobFunction);
+    verify(jobSchedulesRepository).setLastJobId(5L, 9L);
+  }
+
+  @Test
+  public void runDue_skips_runs_claimed_elsewhere() {
+    when(jobSchedulesRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(schedule(true)));
+    when(jobSchedulesRepository.claimRun(eq(5L), eq(due), any(), any())).thenReturn(0);
+
+    jobSchedules.runDue();
+
+    verify(jobService, never()).runAsJob(any());
+    verify(jobSchedulesRepository, never()).setLastJobId(anyLong(), anyLong());
+  }
+
+  @Test
+  public void runDue_carries_on_when_a_job_cannot_be_started() {
+    JobSchedule broken = schedule(true);
+    broken.setDescriptor("broken");
+    JobSchedule working = schedule(true);
+    working.setId(6L);
+    when(jobSchedulesRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(broken, working));
+    when(jobSchedulesRepository.claimRun(anyLong(), eq(due), any(), any())).thenReturn(1);
+    when(jobDescriptors.read("broken")).thenThrow(new IllegalArgumentException("not a job"));
+    when(jobService.runAsJob(jobFunction)).thenReturn(Job.builder().id(9L).build());
+
+    jobSchedules.runDue();
+
+    verify(jobSchedulesRepository, never()).setLastJobId(eq(5L), anyLong());
+    verify(jobSchedulesRepository).setLastJobId(6L, 9L);
+  }
+
+  @Test
+  public void runDue_does_nothing_unless_leader() {
+    when(leaderElection.isLeader(JobSchedules.LEASE)).thenReturn(false);
+
+    jobSchedules.runDue();
+
+    verify(jobSchedulesRepository, never()).findByEnabledTrueAndNextRunAtLessThanEqual(any());
+  }
+
+  @Test
+  public void runDue_does_nothing_when_disabled() {
+    ReflectionTestUtils.setField(jobSchedules, "enabled", false);
+
+    jobSchedules.runDue();
+
+    verify(leaderElection, never()).isLeader(anyString());
+    verify(jobSchedulesRepository, never()).findByEnabledTrueAndNextRunAtLessThanEqual(any());
+  }
+}
@@ -0,0 +1,511 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobLogTail;
+import edu.ucsb.cs156.example.models.JobProgress;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class JobServiceTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogChunksRepository jobLogChunksRepository;
+
+  @Spy private JobLogCodec jobLogCodec = new JobLogCodec();
+
+  @Mock private JobLogWriter jobLogWriter;
+
+  @Mock private JobLogBroadcaster jobLogBroadcaster;
+
+  @Mock private CurrentUserService currentUserService;
+
+  @Mock private JobDescriptors jobDescriptors;
+
+  @Mock private JobMetrics jobMetrics;
+
+  @Mock private RunningJobs runningJobs;
+
+  @Mock private JobScheduler jobScheduler;
+
+  @Mock private JobProgressTracker jobProgressTracker;
+
+  @Mock private JobHeartbeats jobHeartbeats;
+
+  @InjectMocks private JobService jobService;
+
+  private final User user = User.builder().id(1L).email("admin@example.org").build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(currentUserService.getUser()).thenReturn(user);
+    when(jobsRepository.finishRunning(any(), any())).thenReturn(1);
+  }
+
+  @Test
+  public void runAsJob_queues_describable_jobs_when_the_queue_is_enabled() {
+    ReflectionTestUtils.setField(jobService, "queueEnabled", true);
+    TestJob testJob = TestJob.builder().build();
+    when(jobDescriptors.isDescribable(testJob)).thenReturn(true);
+    when(jobDescriptors.write(testJob)).thenReturn("{\"type\":\"TestJob\"}");
+
+    Job job = jobService.runAsJob(testJob);
+
+    Job expected =
+        Job.builder()
+            .createdBy(user)
+            .jobType("TestJob")
+            .status("queued")
+            .descriptor("{\"type\":\"TestJob\"}")
+            .build();
+    assertEquals(expected, job);
+    verify(jobsRepository).save(expected);
+    verify(jobMetrics).submitted(job);
+    verify(jobMetrics, never()).handedToExecutor(any());
+    verify(jobScheduler, never()).submit(any(), any());
+    verify(jobHeartbeats, never()).track(any());
+  }
+
+  @Test
+  public void runAsJob_runs_anonymous_jobs_in_process_even_when_the_queue_is_enabled() {
+    ReflectionTestUtils.setField(jobService, "queueEnabled", true);
+    JobContextConsumer lambdaJob = c -> {};
+    when(jobDescriptors.isDescribable(lambdaJob)).thenReturn(false);
+
+    Job job = jobService.runAsJob(lambdaJob);
+
+    assertEquals("running", job.getStatus());
+    assertEquals("anonymous", job.getJobType());
+    verify(jobScheduler).submit(job, lambdaJob);
+  }
+
+  @Test
+  public void runAsJob_runs_in_process_when_the_queue_is_disabled() {
+    ReflectionTestUtils.setField(jobService, "queueEnabled", false);
+    TestJob testJob = TestJob.builder().build();
+
+    Job job = jobService.runAsJob(testJob);
+
+    assertEquals("running", job.getStatus());
+    verify(jobScheduler).submit(job, testJob);
+    verify(jobDescriptors, never()).write(any());
+    verify(jobMetrics).submitted(job);
+    verify(jobMetrics).handedToExecutor(job);
+    verify(jobHeartbeats).track(job);
+  }
+
+  @Test
+  public void runAsJob_records_rejected_jobs() {
+    ReflectionTestUtils.setField(jobService, "queueEnabled", false);
+    TestJob testJob = TestJob.builder().build();
+    doThrow(new TaskRejectedException("full")).when(jobScheduler).submit(any(), any());
+
+    assertThrows(TaskRejectedException.class, () -> jobService.runAsJob(testJob));
+
+    verify(jobMetrics).handedToExecutor(any());
+    verify(jobMetrics).rejectedByExecutor(any());
+    verify(jobHeartbeats).untrack(any());
+  }
+
+  private void useLaunchKeys() {
+    JobLaunchKeys jobLaunchKeys = new JobLaunchKeys();
+    ReflectionTestUtils.setField(jobLaunchKeys, "ttlMs", 60_000L);
+    ReflectionTestUtils.setField(jobLaunchKeys, "maxKeys", 10);
+    ReflectionTestUtils.setField(jobService, "jobLaunchKeys", jobLaunchKeys);
+  }
+
+  @Test
+  public void runAsJob_with_a_repeated_key_returns_the_first_job() {
+    useLaunchKeys();
+    TestJob testJob = TestJob.builder().build();
+
+    Job first = jobService.runAsJob(testJob, "abc");
+    Job second = jobService.runAsJob(testJob, "abc");
+
+    assertSame(first, second);
+    verify(jobScheduler, times(1)).submit(any(), any());
+  }
+
+  @Test
+  public void runAsJob_keys_are_per_user() {
+    useLaunchKeys();
+    TestJob testJob = TestJob.builder().build();
+
+    Job first = jobService.runAsJob(testJob, "abc");
+    when(currentUserService.getUser()).thenReturn(null);
+    Job second = jobService.runAsJob(testJob, "abc");
+    Job third = jobService.runAsJob(testJob, "abc");
+
+    assertNotSame(first, second);
+    assertSame(second, third);
+  }
+
+  @Test
+  public void runAsJob_without_a_key_always_launches() {
+    useLaunchKeys();
+    TestJob testJob = TestJob.builder().build();
+
+    jobService.runAsJob(testJob, null);
+    jobService.runAsJob(testJob, " ");
+
+    verify(jobScheduler, times(2)).submit(any(), any());
+  }
+
+  @Test
+  public void runClaimedJob_submits_the_described_job() {
+    TestJob testJob = TestJob.builder().build();
+    Job job = Job.builder().id(5L).status("running").descriptor("descriptor").build();
+    when(jobDescriptors.read("descriptor")).thenReturn(testJob);
+
+    jobService.runClaimedJob(job);
+
+    verify(jobScheduler).submit(job, testJob);
+    verify(jobsRepository, never()).save(any());
+    verify(jobMetrics).handedToExecutor(job);
+    verify(jobMetrics, never()).submitted(any());
+    verify(jobHeartbeats).track(job);
+  }
+
+  @Test
+  public void runClaimedJob_requeues_the_job_when_the_executor_is_full() {
+    TestJob testJob = TestJob.builder().build();
+    Job job = Job.builder().id(5L).status("running").descriptor("descriptor").build();
+    when(jobDescriptors.read("descriptor")).thenReturn(testJob);
+    doThrow(new TaskRejectedException("full")).when(jobScheduler).submit(job, testJob);
+
+    jobService.runClaimedJob(job);
+
+    assertEquals("queued", job.getStatus());
+    verify(jobsRepository).save(job);
+    verify(jobMetrics).rejectedByExecutor(job);
+    verify(jobHeartbeats).untrack(job);
+  }
+
+  @Test
+  public void freeSlots_comes_from_the_scheduler() {
+    when(jobScheduler.freeSlots()).thenReturn(3);
+
+    assertEquals(3, jobService.freeSlots());
+  }
+
+  @Test
+  public void runClaimedJob_fails_the_job_when_the_descriptor_is_invalid() {
+    Job job = Job.builder().id(5L).status("running").descriptor("bad").build();
+    when(jobDescriptors.read("bad")).thenThrow(new IllegalArgumentException("Invalid job"));
+
+    jobService.runClaimedJob(job);
+
+    assertEquals("error", job.getStatus());
+    verify(jobLogWriter).append(5L, 0L, "Invalid job");
+    verify(jobLogWriter).close(5L);
+    verify(jobsRepository).finishRunning(eq(job), any());
+    verify(jobLogBroadcaster).complete(5L, "error");
+    verify(jobScheduler, never()).submit(any(), any());
+  }
+
+  @Test
+  public void runJobAsync_tells_log_watchers_when_the_job_completes() {
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobMetrics.started(job)).thenReturn(42L);
+
+    jobService.runJobAsync(
+        job,
+        c -> {
+          c.log("hello");
+          c.progress(1L, 1L);
+        });
+
+    verify(jobMetrics).finished(job, 42L);
+    verify(jobScheduler).finished(job);
+    verify(jobHeartbeats).untrack(job);
+    verify(jobProgressTracker).report(5L, 1L, 1L);
+    verify(jobProgressTracker).finished(job);
+
+    assertEquals("complete", job.getStatus());
+    verify(jobLogWriter).append(5L, 0L, "hello");
+    verify(jobLogWriter).close(5L);
+    verify(jobsRepository).finishRunning(eq(job), any());
+    verify(jobLogBroadcaster).complete(5L, "complete");
+  }
+
+  @Test
+  public void runJobAsync_does_not_save_a_job_that_another_instance_has_taken_over() {
+    Job job = Job.builder().id(5L).status("running").claimToken("mine").build();
+    when(jobsRepository.finishRunning(any(), any())).thenReturn(0);
+    when(jobsRepository.findById(5L))
+        .thenReturn(Optional.of(Job.builder().id(5L).status("queued").build()));
+
+    jobService.runJobAsync(job, c -> {});
+
+    verify(jobsRepository).finishRunning(eq(job), any());
+    verify(jobsRepository, never()).save(any());
+    verify(jobLogBroadcaster).complete(5L, "queued");
+    verify(jobScheduler).finished(job);
+  }
+
+  @Test
+  public void runJobAsync_ends_local_streams_even_if_the_job_row_is_gone() {
+    Job job = Job.builder().id(5L).status("running").claimToken("mine").build();
+    when(jobsRepository.finishRunning(any(), any())).thenReturn(0);
+    when(jobsRepository.findById(5L)).thenReturn(Optional.empty());
+
+    jobService.runJobAsync(job, c -> {});
+
+    verify(jobLogBroadcaster).complete(5L, "complete");
+  }
+
+  @Test
+  public void runJobAsync_uses_the_job_connection_pool_while_the_job_runs() {
+    Job job = Job.builder().id(5L).status("running").build();
+    AtomicBoolean inJob = new AtomicBoolean();
+
+    jobService.runJobAsync(job, c -> inJob.set(JobConnections.inJob()));
+
+    assertTrue(inJob.get());
+    assertFalse(JobConnections.inJob());
+  }
+
+  @Test
+  public void runJobAsync_resumes_a_job_from_its_checkpoint() {
+    Job job = Job.builder().id(5L).status("running").checkpoint("41").build();
+    when(jobLogWriter.nextSeq(5L)).thenReturn(7L);
+
+    jobService.runJobAsync(
+        job,
+        c -> {
+          c.log("starting after " + c.getCheckpoint());
+          c.checkpoint("42");
+        });
+
+    assertEquals("complete", job.getStatus());
+    assertEquals("42", job.getCheckpoint());
+    verify(jobLogWriter).append(5L, 7L, "Resuming from checkpoint");
+    verify(jobLogWriter).append(5L, 8L, "starting after 41");
+    verify(jobsRepository).saveCheckpoint(5L, "42");
+  }
+
+  @Test
+  public void runJobAsync_tells_log_watchers_when_the_job_fails() {
+    Job job = Job.builder().id(5L).status("running").build();
+
+    jobService.runJobAsync(
+        job,
+        c -> {
+          throw new IllegalStateException();
+        });
+
+    assertEquals("error", job.getStatus());
+    verify(jobLogWriter).append(5L, 0L, "null");
+    verify(jobLogBroadcaster).complete(5L, "error");
+  }
+
+  @Test
+  public void runJobAsync_records_a_stopped_job_with_its_stop_status() {
+    Job job = Job.builder().id(5L).status("running").build();
+
+    jobService.runJobAsync(
+        job,
+        new JobContextConsumer() {
+          @Override
+          public void accept(JobContext c) throws Exception {
+            c.stop("timed_out");
+            throw new InterruptedException();
+          }
+
+          @Override
+          public long timeoutMs() {
+            return 250L;
+          }
+        });
+
+    assertEquals("timed_out", job.getStatus());
+    verify(runningJobs).started(any(), eq(250L));
+    verify(runningJobs).finished(any());
+    verify(jobLogWriter).append(5L, 0L, "Timed out");
+    verify(jobLogBroadcaster).complete(5L, "timed_out");
+  }
+
+  @Test
+  public void runJobAsync_records_a_cancelled_job() {
+    Job job = Job.builder().id(5L).status("running").build();
+
+    jobService.runJobAsync(
+        job,
+        c -> {
+          c.stop("cancelled");
+          c.checkpoint();
+        });
+
+    assertEquals("cancelled", job.getStatus());
+    verify(runningJobs).started(any(), eq(0L));
+    verify(jobLogWriter).append(5L, 0L, "Cancelled");
+  }
+
+  @Test
+  public void runJobAsync_completes_a_job_that_finishes_despite_being_stopped() {
+    Job job = Job.builder().id(5L).status("running").build();
+
+    jobService.runJobAsync(job, c -> c.stop("cancelled"));
+
+    assertEquals("complete", job.getStatus());
+  }
+
+  @Test
+  public void cancelJob_cancels_a_queued_job() {
+    when(jobsRepository.findById(5L))
+        .thenReturn(Optional.of(Job.builder().id(5L).status("queued").build()));
+    when(jobsRepository.cancelQueued(5L)).thenReturn(1);
+
+    assertEquals("Job with id 5 cancelled", jobService.cancelJob(5L));
+    verify(jobLogBroadcaster).complete(5L, "cancelled");
+    verify(runningJobs, never()).cancel(anyLong());
+  }
+
+  @Test
+  public void cancelJob_cancels_a_job_waiting_for_its_turn() {
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+    when(jobScheduler.cancel(5L)).thenReturn(job);
+    when(jobLogWriter.nextSeq(5L)).thenReturn(2L);
+
+    assertEquals("Job with id 5 cancelled", jobService.cancelJob(5L));
+    assertEquals("cancelled", job.getStatus());
+    verify(jobHeartbeats).untrack(job);
+    verify(jobMetrics).cancelledBeforeStart(job);
+    verify(jobLogWriter).append(5L, 2L, "Cancelled");
+    verify(jobLogWriter).close(5L);
+    verify(jobsRepository).finishRunning(eq(job), any());
+    verify(jobLogBroadcaster).complete(5L, "cancelled");
+    verify(runningJobs, never()).cancel(anyLong());
+  }
+
+  @Test
+  public void cancelJob_stops_a_job_running_here() {
+    when(jobsRepository.findById(5L))
+        .thenReturn(Optional.of(Job.builder().id(5L).status("running").build()));
+    when(runningJobs.cancel(5L)).thenReturn(true);
+
+    assertEquals("Cancelling job with id 5", jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void cancelJob_leaves_finished_jobs_alone() {
+    when(jobsRepository.findById(5L))
+        .thenReturn(Optional.of(Job.builder().id(5L).status("complete").build()));
+
+    assertEquals("Job with id 5 has already finished", jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void cancelJob_cannot_stop_jobs_running_elsewhere() {
+    when(jobsRepository.findById(5L))
+        .thenReturn(Optional.of(Job.builder().id(5L).status("running").build()));
+
+    assertEquals("Job with id 5 is not running on this instance", jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void cancelJob_throws_when_the_job_does_not_exist() {
+    when(jobsRepository.findById(5L)).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class, () -> jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void isFinished_is_false_only_while_queued_or_running() {
+    assertFalse(JobService.isFinished("queued"));
+    assertFalse(JobService.isFinished("running"));
+    assertTrue(JobService.isFinished("complete"));
+    assertTrue(JobService.isFinished("error"));
+    assertTrue(JobService.isFinished("rejected"));
+  }
+
+  @Test
+  public void streamJobLogs_subscribes_with_a_backlog_from_tailJobLogs() {
+    SseEmitter emitter = new SseEmitter();
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.existsById(5L)).thenReturn(true);
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+    when(jobLogChunksRepository.findByJobIdAndSeqGreaterThanOrderBySeqAsc(5L, 3L))
+        .thenReturn(List.of(JobLogChunk.builder().jobId(5L).seq(4L).payload("d").build()));
+    when(jobLogBroadcaster.subscribe(eq(5L), eq(-1L), any())).thenReturn(emitter);
+
+    assertSame(emitter, jobService.streamJobLogs(5L, -1L));
+
+    ArgumentCaptor<LongFunction<JobLogTail>> backlog = ArgumentCaptor.forClass(LongFunction.class);
+    verify(jobLogBroadcaster).subscribe(eq(5L), eq(-1L), backlog.capture());
+    assertEquals(
+        JobLogTail.builder().jobId(5L).status("running").content("d").lastSeq(4L).build(),
+        backlog.getValue().apply(3L));
+  }
+
+  @Test
+  public void streamJobLogs_throws_when_the_job_does_not_exist() {
+    when(jobsRepository.existsById(5L)).thenReturn(false);
+
+    assertThrows(EntityNotFoundException.class, () -> jobService.streamJobLogs(5L, -1L));
+    verify(jobLogBroadcaster, never()).subscribe(anyLong(), anyLong(), any());
+  }
+
+  @Test
+  public void getProgress_of_a_job_running_here_comes_from_memory() {
+    JobProgress live =
+        JobProgress.builder().jobId(5L).status("running").done(10L).total(20L).build();
+    when(jobProgressTracker.get(5L)).thenReturn(live);
+
+    assertSame(live, jobService.getProgress(5L));
+    verify(jobsRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  public void getProgress_of_other_jobs_comes_from_the_job_row() {
+    Job job = Job.builder().id(5L).status("complete").progressDone(20L).progressTotal(20L).build();
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+
+    JobProgress expected =
+        JobProgress.builder().jobId(5L).status("complete").done(20L).total(20L).build();
+    assertEquals(expected, jobService.getProgress(5L));
+  }
+
+  @Test
+  public void getProgress_throws_when_the_job_does_not_exist() {
+    when(jobsRepository.findById(5L)).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class, () -> jobService.getProgress(5L));
+  }
+}
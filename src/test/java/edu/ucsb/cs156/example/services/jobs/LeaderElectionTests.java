@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.repositories.LeaderLeasesRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class LeaderElectionTests {
+
+  @Mock private LeaderLeasesRepository leaderLeasesRepository;
+
+  @InjectMocks private LeaderElection leaderElection;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(leaderElection, "leaseMs", 30000L);
+  }
+
+  @Test
+  public void lease_is_taken_renewed_and_lost() {
+    when(leaderLeasesRepository.tryAcquire(eq("work"), anyString(), any(), any()))
+        .thenReturn(1)
+        .thenReturn(1)
+        .thenReturn(0)
+        .thenReturn(0);
+
+    assertTrue(leaderElection.isLeader("work"));
+    assertTrue(leaderElection.isLeader("work"));
+    assertFalse(leaderElection.isLeader("work"));
+    assertFalse(leaderElection.isLeader("work"));
+
+    ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<ZonedDateTime> now = ArgumentCaptor.forClass(ZonedDateTime.class);
+    ArgumentCaptor<ZonedDateTime> until = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(leaderLeasesRepository, times(4))
+        .tryAcquire(eq("work"), owner.capture(), now.capture(), until.capture());
+    assertEquals(1, owner.getAllValues().stream().distinct().count());
+    assertEquals(Duration.ofMillis(30000), Duration.between(now.getValue(), until.getValue()));
+  }
+
+  @Test
+  public void releaseAll_gives_up_only_the_leases_held() {
+    when(leaderLeasesRepository.tryAcquire(eq("held"), anyString(), any(), any())).thenReturn(1);
+    when(leaderLeasesRepository.tryAcquire(eq("other"), anyString(), any(), any())).thenReturn(0);
+    leaderElection.isLeader("held");
+    leaderElection.isLeader("other");
+
+    leaderElection.releaseAll();
+    leaderElection.releaseAll();
+
+    verify(leaderLeasesRepository, times(1)).release(eq("held"), anyString());
+    verify(leaderLeasesRepository, never()).release(eq("other"), anyString());
+  }
+}
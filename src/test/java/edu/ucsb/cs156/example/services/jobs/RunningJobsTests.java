@@ -0,0 +1,125 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RunningJobsTests {
+
+  private RunningJobs runningJobs;
+
+  @BeforeEach
+  public void setup() {
+    runningJobs = new RunningJobs();
+    ReflectionTestUtils.setField(runningJobs, "defaultTimeoutMs", 0L);
+  }
+
+  @AfterEach
+  public void teardown() {
+    runningJobs.shutdown();
+  }
+
+  private JobContext context(long id) {
+    return new JobContext(null, Job.builder().id(id).build());
+  }
+
+  @Test
+  public void cancel_stops_a_running_job() {
+    JobContext context = context(1L);
+    runningJobs.started(context, 0L);
+
+    assertTrue(runningJobs.cancel(1L));
+
+    assertEquals("cancelled", context.getStopStatus());
+    assertTrue(Thread.currentThread().isInterrupted());
+    runningJobs.finished(context);
+    assertFalse(Thread.currentThread().isInterrupted());
+    assertFalse(runningJobs.cancel(1L));
+  }
+
+  @Test
+  public void cancel_of_an_unknown_job_does_nothing() {
+    assertFalse(runningJobs.cancel(1L));
+  }
+
+  /** Runs a job that sleeps for a minute unless interrupted, and returns once it has ended. */
+  private void runSleepingJob(JobContext context, long timeoutMs) throws InterruptedException {
+    Thread thread =
+        new Thread(
+            () -> {
+              runningJobs.started(context, timeoutMs);
+              try {
+                Thread.sleep(60_000);
+              } catch (InterruptedException e) {
+                // stopped
+              } finally {
+                runningJobs.finished(context);
+              }
+            });
+    thread.start();
+    thread.join(5_000);
+    assertFalse(thread.isAlive());
+  }
+
+  @Test
+  public void job_times_out_after_its_own_timeout() throws Exception {
+    JobContext context = context(1L);
+
+    runSleepingJob(context, 50L);
+
+    assertEquals("timed_out", context.getStopStatus());
+  }
+
+  @Test
+  public void job_times_out_after_the_default_timeout() throws Exception {
+    ReflectionTestUtils.setField(runningJobs, "defaultTimeoutMs", 50L);
+    JobContext context = context(1L);
+
+    runSleepingJob(context, 0L);
+
+    assertEquals("timed_out", context.getStopStatus());
+  }
+
+  @Test
+  public void finished_job_no_longer_times_out() throws Exception {
+    JobContext context = context(1L);
+    runningJobs.started(context, 50L);
+    runningJobs.finished(context);
+
+    Thread.sleep(200);
+
+    assertNull(context.getStopStatus());
+  }
+
+  @Test
+  public void a_newer_run_of_the_same_job_is_not_forgotten() {
+    JobContext older = context(1L);
+    JobContext newer = context(1L);
+    runningJobs.started(older, 0L);
+    runningJobs.started(newer, 0L);
+
+    runningJobs.finished(older);
+
+    assertTrue(runningJobs.cancel(1L));
+    assertEquals("cancelled", newer.getStopStatus());
+    runningJobs.finished(newer);
+  }
+
+  @Test
+  public void finishing_an_unknown_job_only_detaches_it() {
+    JobContext context = context(1L);
+    context.attach();
+
+    runningJobs.finished(context);
+
+    context.stop("cancelled");
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+}
@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+public class VirtualThreadJobExecutorTests {
+
+  @Test
+  public void runs_tasks_on_virtual_threads() throws Exception {
+    VirtualThreadJobExecutor executor = new VirtualThreadJobExecutor(1, 0);
+    CountDownLatch done = new CountDownLatch(1);
+    AtomicInteger virtual = new AtomicInteger();
+
+    executor.execute(
+        () -> {
+          if (Thread.currentThread().isVirtual()) virtual.incrementAndGet();
+          done.countDown();
+        });
+
+    assertTrue(done.await(5, SECONDS));
+    assertEquals(1, virtual.get());
+  }
+
+  @Test
+  public void limits_concurrency_and_rejects_when_queue_is_full() throws Exception {
+    VirtualThreadJobExecutor executor = new VirtualThreadJobExecutor(1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger finished = new AtomicInteger();
+
+    Runnable task =
+        () -> {
+          running.incrementAndGet();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          finished.incrementAndGet();
+        };
+
+    executor.execute(task);
+    executor.execute(task);
+
+    await().atMost(5, SECONDS).untilAsserted(() -> assertEquals(1, running.get()));
+    TaskRejectedException e =
+        assertThrows(TaskRejectedException.class, () -> executor.execute(task));
+    assertEquals("Job executor is at capacity; try again later", e.getMessage());
+
+    release.countDown();
+    await().atMost(5, SECONDS).untilAsserted(() -> assertEquals(2, finished.get()));
+
+    executor.execute(task);
+    await().atMost(5, SECONDS).untilAsserted(() -> assertEquals(3, finished.get()));
+  }
+}
@@ -3,12 +3,15 @@ package edu.ucsb.cs156.example.testconfig;
 import edu.ucsb.cs156.example.config.SecurityConfig;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.LoginUserService;
+import edu.ucsb.cs156.example.services.RequestMemo;
+import edu.ucsb.cs156.example.services.UserCache;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 
 @TestConfiguration
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, LoginUserService.class, RequestMemo.class, UserCache.class})
 public class TestConfig {
 
   @Bean